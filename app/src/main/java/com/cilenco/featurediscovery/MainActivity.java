@@ -1,6 +1,7 @@
 package com.cilenco.featurediscovery;
 
 import android.graphics.Typeface;
+import android.os.AsyncTask;
 import android.os.Bundle;
 import android.os.Handler;
 import android.support.v7.app.AppCompatActivity;
@@ -16,6 +17,7 @@ public class MainActivity extends AppCompatActivity implements DiscoveryView.OnD
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        DiscoveryView.prewarmWhenIdle(this);
     }
 
     @Override
@@ -27,14 +29,17 @@ public class MainActivity extends AppCompatActivity implements DiscoveryView.OnD
             @Override
             public void run() {
                 final View v = findViewById(R.id.info);
-                DiscoveryView infoView = new DiscoveryView.Builder(MainActivity.this, v)
+                new DiscoveryView.Builder(MainActivity.this, v)
                         .setPrimaryText(R.string.infoHeader)
                         .setSecondaryText(R.string.infoDescription)
                         .setOnClickListener(MainActivity.this)
                         .usePrimaryColorAsFilter(true)
-                        .build();
-
-                infoView.show();
+                        .buildAsync(AsyncTask.THREAD_POOL_EXECUTOR, new DiscoveryView.Builder.Callback() {
+                            @Override
+                            public void onDiscoveryViewBuilt(DiscoveryView discoveryView) {
+                                discoveryView.show();
+                            }
+                        });
             }
         });
 
@@ -93,6 +98,6 @@ public class MainActivity extends AppCompatActivity implements DiscoveryView.OnD
 
     @Override
     public void onDiscoveryViewDismissed(DiscoveryView discoveryView) {
-
+        discoveryView.recycle();
     }
 }
@@ -0,0 +1,150 @@
+package com.cilenco.discoveryview;
+
+import android.app.Activity;
+import android.app.Application;
+import android.app.Instrumentation;
+import android.os.Bundle;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.rule.ActivityTestRule;
+import android.support.test.runner.AndroidJUnit4;
+
+import com.cilenco.discoveryview.benchmark.BenchmarkActivity;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks on a device that no DiscoveryView is kept alive by the lifecycle
+ * callbacks or the pool once it is dismissed or its activity is destroyed.
+ * Only weak references to the views are kept, then the garbage collector
+ * is forced until they are cleared.
+ * Run with ./gradlew :benchmark:connectedAndroidTest
+ */
+@RunWith(AndroidJUnit4.class)
+public class DiscoveryViewLeakTest {
+    private static final int GC_ATTEMPTS = 20;
+    private static final long GC_DELAY = 100;
+    private static final long DESTROY_TIMEOUT = 5;
+
+    @Rule
+    public final ActivityTestRule<BenchmarkActivity> rule = new ActivityTestRule<>(BenchmarkActivity.class);
+
+    private Instrumentation instrumentation;
+    private WeakReference<DiscoveryView> view;      // Holds the view under test without keeping it alive
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+    }
+
+    @Test
+    public void dismissedViewIsCollected() throws Exception {
+        show(true, false);
+        assertCollected(view);
+    }
+
+    @Test
+    public void recycledViewIsCollectedWithItsActivity() throws Exception {
+        show(true, true);
+
+        destroyActivity();
+        assertCollected(view);
+    }
+
+    @Test
+    public void shownViewIsCollectedWithItsActivity() throws Exception {
+        show(false, false);
+
+        destroyActivity();
+        assertCollected(view);
+    }
+
+    private DiscoveryView build() {
+        BenchmarkActivity activity = rule.getActivity();
+
+        return new DiscoveryView.Builder(activity, activity.getTarget())
+                .setPrimaryText("Feature discovery")
+                .setSecondaryText("Tap the icon to see what is new in this version of the app")
+                .build();
+    }
+
+    // Shows a view on the main thread, only a weak reference to it is kept
+    private void show(final boolean dismiss, final boolean recycle) {
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                DiscoveryView discoveryView = build();
+                discoveryView.show(false);
+
+                if (dismiss) discoveryView.dismiss(false);
+                if (recycle) discoveryView.recycle();
+
+                view = new WeakReference<>(discoveryView);
+            }
+        });
+
+        instrumentation.waitForIdleSync();
+    }
+
+    private void destroyActivity() throws InterruptedException {
+        final BenchmarkActivity activity = rule.getActivity();
+        final CountDownLatch destroyed = new CountDownLatch(1);
+
+        activity.getApplication().registerActivityLifecycleCallbacks(new Application.ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityDestroyed(Activity destroyedActivity) {
+                if (destroyedActivity != activity) return;
+
+                destroyedActivity.getApplication().unregisterActivityLifecycleCallbacks(this);
+                destroyed.countDown();
+            }
+
+            @Override
+            public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            }
+
+            @Override
+            public void onActivityStarted(Activity activity) {
+            }
+
+            @Override
+            public void onActivityResumed(Activity activity) {
+            }
+
+            @Override
+            public void onActivityPaused(Activity activity) {
+            }
+
+            @Override
+            public void onActivityStopped(Activity activity) {
+            }
+
+            @Override
+            public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+            }
+        });
+
+        activity.finish();
+        assertTrue("The activity was not destroyed", destroyed.await(DESTROY_TIMEOUT, TimeUnit.SECONDS));
+        instrumentation.waitForIdleSync();
+    }
+
+    private static void assertCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < GC_ATTEMPTS && reference.get() != null; i++) {
+            Runtime.getRuntime().gc();
+            System.runFinalization();
+            Thread.sleep(GC_DELAY);
+        }
+
+        assertNull("The view was not collected", reference.get());
+    }
+}
@@ -0,0 +1,38 @@
+package com.cilenco.discoveryview.benchmark;
+
+import android.app.Activity;
+import android.os.Bundle;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+
+/**
+ * Hosts the targets of the benchmarks. The target is placed in the
+ * upper left quarter of the screen and can be resized by the benchmarks.
+ */
+public class BenchmarkActivity extends Activity {
+    private ImageView target;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        FrameLayout root = new FrameLayout(this);
+        target = new ImageView(this);
+        target.setImageResource(android.R.drawable.ic_menu_info_details);
+
+        root.addView(target, new FrameLayout.LayoutParams(144, 144));
+        setContentView(root);
+    }
+
+    public ImageView getTarget() {
+        return target;
+    }
+
+    /**
+     * Lays the target out with the given size in pixels
+     * @param size The width and height of the target
+     */
+    public void setTargetSize(int size) {
+        target.layout(0, 0, size, size);
+    }
+}
@@ -0,0 +1,182 @@
+package com.cilenco.discoveryview;
+
+import android.animation.ValueAnimator;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.Rect;
+import android.view.MotionEvent;
+import android.widget.ImageView;
+
+import com.cilenco.discoveryview.benchmark.BenchmarkActivity;
+import com.cilenco.discoveryview.benchmark.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Fails the build if a tap, a pulse frame or a draw of the shown view allocates.
+ * The bytes are counted per thread and averaged over many runs after a warmup,
+ * so the one time setup of a path is not part of its budget. Calls into the
+ * Robolectric shadows are kept out of the count with a no-op canvas or
+ * by subtracting a baseline of the same framework calls.
+ * Runs on API 24, where the animated properties are set without boxing.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 24)
+public class AllocationBudgetTest {
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+
+    private static final int WARMUP_RUNS = 100;
+    private static final int MEASURED_RUNS = 1000;
+    private static final long FRAME_TIME = 16;
+
+    // Allowed bytes per run of each path
+    private static final long TAP_BUDGET = 0;
+    private static final long PULSE_CYCLE_BUDGET = 0;
+    private static final long DRAW_BUDGET = 0;
+
+    private BenchmarkActivity activity;
+    private DiscoveryView view;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue("The JVM can not count allocations", BenchmarkReport.allocatedBytes() >= 0);
+
+        activity = Robolectric.setupActivity(BenchmarkActivity.class);
+        ImageView target = activity.getTarget();
+
+        view = new DiscoveryView.Builder(activity, target)
+                .setPrimaryText("Feature discovery")
+                .setSecondaryText("Tap the icon to see what is new in this version of the app")
+                .setPulsePolicy(new PulsePolicy().setPauseWhenUnfocused(false))
+                .build();
+
+        view.onSizeChanged(SCREEN_WIDTH, SCREEN_HEIGHT, 0, 0);
+
+        Method startPulse = DiscoveryView.class.getDeclaredMethod("startPulse");
+        startPulse.setAccessible(true);
+        startPulse.invoke(view);
+    }
+
+    @After
+    public void tearDown() {
+        if (view != null) view.recycle();
+        if (activity != null) activity.finish();
+    }
+
+    @Test
+    public void tapStaysInBudget() throws Exception {
+        final DiscoveryView.ClickDetector detector = view.new ClickDetector();
+        final MotionEvent tap = MotionEvent.obtain(0, 0, MotionEvent.ACTION_UP, -10, -10, 0); // Beside the target
+
+        final ImageView target = activity.getTarget();
+        final Rect rect = new Rect();
+
+        // The shadows of the event and the target are measured on their own
+        long baseline = allocatedPerRun(new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                tap.getRawX();
+                tap.getRawY();
+                target.getGlobalVisibleRect(rect);
+            }
+        });
+
+        long allocated = allocatedPerRun(new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                detector.onSingleTapUp(tap);
+            }
+        });
+
+        assertInBudget("onSingleTapUp", allocated - baseline, TAP_BUDGET);
+        tap.recycle();
+    }
+
+    @Test
+    public void pulseCycleStaysInBudget() throws Exception {
+        Field field = DiscoveryView.class.getDeclaredField("clock");
+        field.setAccessible(true);
+
+        final ValueAnimator clock = (ValueAnimator) field.get(view);
+        final long duration = clock.getDuration();
+
+        // Every seek of the clock calls onFrame() through its update listener
+        long allocated = allocatedPerRun(new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                for (long time = 0; time < duration; time += FRAME_TIME) clock.setCurrentPlayTime(time);
+            }
+        });
+
+        assertInBudget("pulse cycle", allocated, PULSE_CYCLE_BUDGET);
+    }
+
+    @Test
+    public void onDrawStaysInBudget() throws Exception {
+        final NoOpCanvas canvas = new NoOpCanvas();
+
+        long allocated = allocatedPerRun(new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                view.onDraw(canvas);
+            }
+        });
+
+        assertInBudget("onDraw", allocated, DRAW_BUDGET);
+        view.setSpotlightRendering(true);
+
+        allocated = allocatedPerRun(new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                view.onDraw(canvas);
+            }
+        });
+
+        assertInBudget("onDraw.spotlight", allocated, DRAW_BUDGET);
+    }
+
+    // Returns the bytes the task allocates per run after a warmup
+    private static long allocatedPerRun(BenchmarkReport.Task task) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) task.run();
+
+        long start = BenchmarkReport.allocatedBytes();
+        for (int i = 0; i < MEASURED_RUNS; i++) task.run();
+
+        return (BenchmarkReport.allocatedBytes() - start) / MEASURED_RUNS;
+    }
+
+    private static void assertInBudget(String name, long allocated, long budget) {
+        assertTrue(name + " allocates " + allocated + " bytes per run, the budget is " + budget, allocated <= budget);
+    }
+
+    // Drops every draw call the pulse makes, so only the view itself is measured
+    private static class NoOpCanvas extends Canvas
+    {
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        }
+
+        @Override
+        public void drawPicture(Picture picture) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        }
+    }
+}
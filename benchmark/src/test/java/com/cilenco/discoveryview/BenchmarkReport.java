@@ -0,0 +1,102 @@
+package com.cilenco.discoveryview;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Measures small pieces of code and writes the results as JSON. Each benchmark
+ * is warmed up first and then runs a fixed number of times. The median and the
+ * 90th percentile are reported in nanoseconds per run. If the JVM can count the
+ * allocations of a thread, the average allocated bytes per run are reported as well.
+ * They include the allocations of the Robolectric shadows, so only the difference
+ * between two releases is meaningful, not the absolute value.
+ */
+final class BenchmarkReport {
+    private static final int WARMUP_RUNS = 50;
+    private static final int MEASURED_RUNS = 200;
+
+    private final String fileName;              // Holds the name of the written file
+    private final ArrayList<String> results;    // Holds the JSON object of every benchmark
+
+    interface Task {
+        void run() throws Exception;
+    }
+
+    BenchmarkReport(String fileName) {
+        this.fileName = fileName;
+        this.results = new ArrayList<>();
+    }
+
+    /**
+     * Runs the task and stores its timing under the given name
+     * @param name The name of the benchmark in the report
+     * @param task The code which is measured
+     */
+    void measure(String name, Task task) throws Exception {
+        for (int i = 0; i < WARMUP_RUNS; i++) task.run();
+
+        long[] times = new long[MEASURED_RUNS];
+        long allocationStart = allocatedBytes();
+
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            task.run();
+            times[i] = System.nanoTime() - start;
+        }
+
+        long allocationEnd = allocatedBytes();
+        long allocated = allocationStart < 0 ? -1 : (allocationEnd - allocationStart) / MEASURED_RUNS;
+
+        Arrays.sort(times);
+
+        results.add(String.format(Locale.US,
+                "{\"name\":\"%s\",\"runs\":%d,\"medianNs\":%d,\"p90Ns\":%d,\"minNs\":%d,\"allocatedBytes\":%d}",
+                name, MEASURED_RUNS, times[MEASURED_RUNS / 2], times[MEASURED_RUNS * 9 / 10], times[0], allocated));
+    }
+
+    // Returns the bytes allocated by this thread or -1 if the JVM can not count them
+    static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) return -1;
+
+        com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) bean;
+        if (!allocationBean.isThreadAllocatedMemorySupported()) return -1;
+
+        return allocationBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Writes all results to the directory of the system property
+     * benchmark.output or to build/benchmark if it is not set
+     */
+    void write() throws IOException {
+        File directory = new File(System.getProperty("benchmark.output", "build/benchmark"));
+        if (!directory.exists() && !directory.mkdirs()) throw new IOException("Cannot create " + directory);
+
+        File file = new File(directory, fileName);
+
+        StringBuilder json = new StringBuilder("{\"benchmarks\":[");
+
+        for (int i = 0; i < results.size(); i++) {
+            if (i > 0) json.append(',');
+            json.append("\n  ").append(results.get(i));
+        }
+
+        json.append("\n]}\n");
+
+        Writer writer = new FileWriter(file);
+
+        try {
+            writer.write(json.toString());
+        } finally {
+            writer.close();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.cilenco.discoveryview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.widget.ImageView;
+
+import com.cilenco.discoveryview.benchmark.BenchmarkActivity;
+import com.cilenco.discoveryview.benchmark.BuildConfig;
+
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.lang.reflect.Method;
+
+/**
+ * Benchmarks the hot paths of the {@link DiscoveryView} which run before and
+ * while the view is shown. The results are written as JSON to the build
+ * directory of this module, so they can be compared between releases.
+ * Run with ./gradlew :benchmark:testDebugUnitTest
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DiscoveryViewBenchmark {
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+
+    private static final int[] TARGET_SIZES = {48, 144, 480};
+
+    private static BenchmarkReport report;
+
+    private BenchmarkActivity activity;
+    private ImageView target;
+
+    @BeforeClass
+    public static void createReport() {
+        report = new BenchmarkReport("results.json");
+    }
+
+    @AfterClass
+    public static void writeReport() throws Exception {
+        report.write();
+    }
+
+    @Before
+    public void setUp() {
+        activity = Robolectric.setupActivity(BenchmarkActivity.class);
+        target = activity.getTarget();
+        activity.setTargetSize(TARGET_SIZES[1]);
+    }
+
+    @After
+    public void tearDown() {
+        // Frees the pool for the next test, see DiscoveryView.recycle()
+        activity.finish();
+    }
+
+    private DiscoveryView build() {
+        return new DiscoveryView.Builder(activity, target)
+                .setPrimaryText("Feature discovery")
+                .setSecondaryText("Tap the icon to see what is new in this version of the app")
+                .build();
+    }
+
+    @Test
+    public void builderBuild() throws Exception {
+        report.measure("Builder.build", new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                build().recycle();
+            }
+        });
+    }
+
+    @Test
+    public void setTarget() throws Exception {
+        final DiscoveryView view = build();
+
+        for (int size : TARGET_SIZES) {
+            activity.setTargetSize(size);
+
+            report.measure("setTarget." + size + "px", new BenchmarkReport.Task() {
+                @Override
+                public void run() {
+                    view.setTarget(target);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void onSizeChanged() throws Exception {
+        final DiscoveryView view = build();
+        final TextLayoutCache cache = TextLayoutCache.get();
+
+        report.measure("onSizeChanged.cold", new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                cache.clear();
+                view.onSizeChanged(SCREEN_WIDTH, SCREEN_HEIGHT, 0, 0);
+            }
+        });
+
+        report.measure("onSizeChanged.cached", new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                view.onSizeChanged(SCREEN_WIDTH, SCREEN_HEIGHT, 0, 0);
+            }
+        });
+    }
+
+    @Test
+    public void setupMetrics() throws Exception {
+        final DiscoveryView view = build();
+        view.onSizeChanged(SCREEN_WIDTH, SCREEN_HEIGHT, 0, 0);
+
+        final Method setupMetrics = DiscoveryView.class.getDeclaredMethod("setupMetrics", int.class, int.class);
+        setupMetrics.setAccessible(true);
+
+        report.measure("setupMetrics", new BenchmarkReport.Task() {
+            @Override
+            public void run() throws Exception {
+                setupMetrics.invoke(view, SCREEN_WIDTH, SCREEN_HEIGHT);
+            }
+        });
+    }
+
+    @Test
+    public void onDraw() throws Exception {
+        final DiscoveryView view = build();
+        view.onSizeChanged(SCREEN_WIDTH, SCREEN_HEIGHT, 0, 0);
+
+        Bitmap bitmap = Bitmap.createBitmap(SCREEN_WIDTH, SCREEN_HEIGHT, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(bitmap);
+
+        report.measure("onDraw", new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                view.onDraw(canvas);
+            }
+        });
+
+        view.setSpotlightRendering(true);
+
+        report.measure("onDraw.spotlight", new BenchmarkReport.Task() {
+            @Override
+            public void run() {
+                view.onDraw(canvas);
+            }
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package com.cilenco.discoveryview;
+
+import android.widget.ImageView;
+
+import com.cilenco.discoveryview.benchmark.BenchmarkActivity;
+import com.cilenco.discoveryview.benchmark.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.util.ActivityController;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that a view which is shown, dismissed and recycled again and again
+ * is taken from the pool every time and reuses the pooled target bitmap, and
+ * that the bytes allocated per cycle stay flat. The allocations include the
+ * Robolectric shadows, so they are only compared with each other.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(constants = BuildConfig.class, sdk = 23)
+public class DiscoveryViewPoolTest {
+    private static final int CYCLES = 20;
+    private static final int WARMUP_CYCLES = 50;
+    private static final int MEASURED_CYCLES = 100;
+
+    // A later block of cycles may allocate this much more than an earlier one (JIT noise)
+    private static final double GROWTH_TOLERANCE = 0.1;
+
+    private ActivityController<BenchmarkActivity> controller;
+    private BenchmarkActivity activity;
+    private ImageView target;
+
+    @Before
+    public void setUp() {
+        controller = Robolectric.buildActivity(BenchmarkActivity.class).setup();
+        activity = controller.get();
+        target = activity.getTarget();
+    }
+
+    @After
+    public void tearDown() {
+        // Views of a finishing activity are dropped from the pool
+        activity.finish();
+        controller.pause().stop().destroy();
+    }
+
+    private DiscoveryView cycle() {
+        return cycle(true);
+    }
+
+    private DiscoveryView cycle(boolean recycle) {
+        DiscoveryView view = new DiscoveryView.Builder(activity, target)
+                .setPrimaryText("Feature discovery")
+                .setSecondaryText("Tap the icon to see what is new in this version of the app")
+                .setHostMode(DiscoveryView.HOST_DECOR_VIEW)
+                .build();
+
+        view.show(false);
+        view.dismiss(false);
+        if (recycle) view.recycle();
+
+        return view;
+    }
+
+    @Test
+    public void cyclesReuseThePooledView() {
+        DiscoveryView first = cycle();
+        BitmapPool bitmaps = BitmapPool.get();
+        int misses = bitmaps.getMissCount();
+
+        for (int i = 0; i < CYCLES; i++) {
+            assertSame("Cycle " + i + " created a new view", first, cycle());
+        }
+
+        assertEquals("The target snapshot missed the BitmapPool", misses, bitmaps.getMissCount());
+    }
+
+    @Test
+    public void allocationsStayFlat() {
+        assumeTrue("The JVM can not count allocations", BenchmarkReport.allocatedBytes() >= 0);
+        for (int i = 0; i < WARMUP_CYCLES; i++) cycle();
+
+        long early = allocatedPerCycle(true);
+        long late = allocatedPerCycle(true);
+
+        assertTrue("Cycles allocate " + late + " bytes after " + early + " bytes before",
+                late <= early + early * GROWTH_TOLERANCE);
+    }
+
+    @Test
+    public void pooledCyclesAllocateLessThanNewViews() {
+        assumeTrue("The JVM can not count allocations", BenchmarkReport.allocatedBytes() >= 0);
+
+        // Both kinds of cycles are warmed up, the new views are not recycled
+        for (int i = 0; i < WARMUP_CYCLES; i++) cycle(false);
+        for (int i = 0; i < WARMUP_CYCLES; i++) cycle();
+
+        long pooled = allocatedPerCycle(true);
+        long created = allocatedPerCycle(false);
+
+        assertTrue("Pooled cycles allocate " + pooled + " bytes, new views " + created + " bytes",
+                pooled < created);
+    }
+
+    // Returns the bytes allocated per show, dismiss and optional recycle cycle
+    private long allocatedPerCycle(boolean recycle) {
+        long start = BenchmarkReport.allocatedBytes();
+        for (int i = 0; i < MEASURED_CYCLES; i++) cycle(recycle);
+
+        return (BenchmarkReport.allocatedBytes() - start) / MEASURED_CYCLES;
+    }
+}
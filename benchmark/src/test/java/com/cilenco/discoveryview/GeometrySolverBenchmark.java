@@ -0,0 +1,76 @@
+package com.cilenco.discoveryview;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link GeometrySolver} on the plain JVM with JMH. The solved case
+ * moves the target on every call, so the cache never hits, the cached case solves
+ * the same input again. The JMH results are written as JSON next to the ones of
+ * {@link DiscoveryViewBenchmark}. JMH runs inside the test JVM, because the forked
+ * JVMs would not get the classpath of the unit test task.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+public class GeometrySolverBenchmark {
+    private static final int SCREEN_WIDTH = 1080;
+    private static final int SCREEN_HEIGHT = 1920;
+
+    private GeometrySolver solver;
+    private int step;
+
+    @Setup
+    public void setUp() {
+        solver = new GeometrySolver(48, 60, 24, 48);
+    }
+
+    @Benchmark
+    public float solve() {
+        float x = (step * 7) % SCREEN_WIDTH;
+        float y = (step * 13) % SCREEN_HEIGHT;
+        step++;
+
+        solver.solve(x, y, 66, SCREEN_HEIGHT, 600, 90, 900, 160);
+        return solver.getRadius(); // Returned so the call is not removed as dead code
+    }
+
+    @Benchmark
+    public float cached() {
+        solver.solve(540, 960, 66, SCREEN_HEIGHT, 600, 90, 900, 160);
+        return solver.getRadius();
+    }
+
+    @Test
+    public void run() throws Exception {
+        File directory = new File(System.getProperty("benchmark.output", "build/benchmark"));
+        if (!directory.exists() && !directory.mkdirs()) throw new IOException("Cannot create " + directory);
+
+        Options options = new OptionsBuilder()
+                .include(GeometrySolverBenchmark.class.getName())
+                .forks(0)
+                .resultFormat(ResultFormatType.JSON)
+                .result(new File(directory, "geometry.json").getPath())
+                .build();
+
+        new Runner(options).run();
+    }
+}
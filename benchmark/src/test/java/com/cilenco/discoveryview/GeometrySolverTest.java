@@ -0,0 +1,91 @@
+package com.cilenco.discoveryview;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the placement of the texts and the background radius
+ * of the {@link GeometrySolver} on the plain JVM.
+ */
+public class GeometrySolverTest {
+    private static final float DELTA = 0.001f;
+
+    private static final float VIEW_HEIGHT = 2000;
+    private static final float TARGET_RADIUS = 44;
+    private static final float PADDING = 40;
+
+    private GeometrySolver solver;
+
+    @Before
+    public void setUp() {
+        // Texts start at x = 40, 40 below the target circle and 16 apart
+        solver = new GeometrySolver(40, 40, 16, PADDING);
+    }
+
+    private void solve(float centerX, float centerY) {
+        solver.solve(centerX, centerY, TARGET_RADIUS, VIEW_HEIGHT, 300, 50, 500, 100);
+    }
+
+    @Test
+    public void textsAreBelowTheTargetIfTheyFit() {
+        solve(100, 200);
+
+        assertEquals(284, solver.getPrimaryTextY(), DELTA);
+        assertEquals(350, solver.getSecondaryTextY(), DELTA);
+    }
+
+    @Test
+    public void textsAreAboveTheTargetIfThereIsMoreSpace() {
+        solve(900, 1900);
+
+        assertEquals(1716, solver.getSecondaryTextY(), DELTA);
+        assertEquals(1650, solver.getPrimaryTextY(), DELTA);
+    }
+
+    @Test
+    public void radiusReachesTheFarthestCorner() {
+        // The texts span x 40 - 540 and y 284 - 450, the farthest corner is (540, 450)
+        solve(100, 200);
+        assertEquals((float) Math.sqrt(440 * 440 + 250 * 250) + PADDING, solver.getRadius(), DELTA);
+
+        // The texts span x 40 - 540 and y 1650 - 1816, the farthest corner is (40, 1650)
+        solve(900, 1900);
+        assertEquals((float) Math.sqrt(860 * 860 + 250 * 250) + PADDING, solver.getRadius(), DELTA);
+    }
+
+    @Test
+    public void textsAreMovedPastFurtherTargets() {
+        float[] extraCenters = {500, 320};
+        solver.solve(500, 200, TARGET_RADIUS, VIEW_HEIGHT, 300, 50, 500, 100, extraCenters, 1);
+
+        assertEquals(404, solver.getPrimaryTextY(), DELTA);
+        assertEquals(470, solver.getSecondaryTextY(), DELTA);
+    }
+
+    @Test
+    public void unchangedInputIsTakenFromTheCache() {
+        solve(100, 200);
+        float radius = solver.getRadius();
+
+        solve(900, 1900);
+        solve(100, 200);
+
+        assertEquals(radius, solver.getRadius(), DELTA);
+        assertEquals(284, solver.getPrimaryTextY(), DELTA);
+        assertEquals(1, solver.getHitCount());
+        assertEquals(2, solver.getMissCount());
+    }
+
+    @Test
+    public void resultsWithFurtherTargetsAreNotCached() {
+        float[] extraCenters = {500, 320};
+
+        solver.solve(500, 200, TARGET_RADIUS, VIEW_HEIGHT, 300, 50, 500, 100, extraCenters, 1);
+        solver.solve(500, 200, TARGET_RADIUS, VIEW_HEIGHT, 300, 50, 500, 100, extraCenters, 1);
+
+        assertEquals(0, solver.getHitCount());
+        assertEquals(2, solver.getMissCount());
+    }
+}
@@ -0,0 +1,54 @@
+package com.cilenco.discoveryview;
+
+import android.animation.Animator;
+import android.animation.AnimatorInflater;
+import android.content.Context;
+import android.support.annotation.AnimatorRes;
+import android.util.SparseArray;
+
+/**
+ * Process wide cache of the parsed animator resources used by the {@link DiscoveryView}.
+ * Every resource is parsed only once, each view works on its own clone of the template.
+ */
+final class AnimatorTemplates {
+    private static final SparseArray<Animator> templates = new SparseArray<>();
+
+    private AnimatorTemplates() {
+    }
+
+    /**
+     * Parses the animator resource if it is not cached yet
+     * @param context The context used to parse the resource
+     * @param animatorRes The animator resource
+     */
+    static void load(Context context, @AnimatorRes int animatorRes) {
+        getTemplate(context, animatorRes);
+    }
+
+    /**
+     * Returns a clone of the cached template, which can be changed freely
+     * @param context The context used to parse the resource if it is not cached yet
+     * @param animatorRes The animator resource
+     * @return A new animator with the values of the resource
+     */
+    static Animator obtain(Context context, @AnimatorRes int animatorRes) {
+        return getTemplate(context, animatorRes).clone();
+    }
+
+    private static Animator getTemplate(Context context, int animatorRes) {
+        synchronized (templates) {
+            Animator template = templates.get(animatorRes);
+            if (template != null) return template;
+        }
+
+        // The dp values of the resources only depend on the display, so
+        // the application context is used to not hold any activity
+        Animator template = AnimatorInflater.loadAnimator(context.getApplicationContext(), animatorRes);
+
+        synchronized (templates) {
+            templates.put(animatorRes, template);
+        }
+
+        return template;
+    }
+}
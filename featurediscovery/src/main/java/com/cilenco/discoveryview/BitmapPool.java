@@ -0,0 +1,215 @@
+package com.cilenco.discoveryview;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.os.Build;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Process wide pool for the target snapshots of the {@link DiscoveryView}.
+ * Bitmaps are bucketed by their size and config and the pool never holds
+ * more than {@link #getMaxBytes()} bytes. If the limit is reached the least
+ * recently released bitmaps are recycled first.
+ */
+public final class BitmapPool {
+    private static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private static BitmapPool instance;
+
+    private final HashMap<Long, ArrayList<Bitmap>> buckets; // Holds the pooled bitmaps by size and config
+    private final ArrayList<Bitmap> released;               // Holds all pooled bitmaps, oldest first
+
+    private int maxBytes;                                   // Holds the maximal size of the pool
+    private int bytes;                                      // Holds the current size of the pool
+
+    private int hitCount;                                   // Counts the bitmaps taken from the pool
+    private int missCount;                                  // Counts the newly created bitmaps
+    private int evictionCount;                              // Counts the bitmaps recycled by the pool
+
+    private BitmapPool(int maxBytes) {
+        this.buckets = new HashMap<>();
+        this.released = new ArrayList<>();
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Returns the pool which is shared by all DiscoveryViews of the process
+     * @return The process wide BitmapPool
+     */
+    public static synchronized BitmapPool get() {
+        if (instance == null) instance = new BitmapPool(DEFAULT_MAX_BYTES);
+        return instance;
+    }
+
+    /**
+     * Returns a cleared mutable bitmap with the given size and config. The
+     * bitmap is taken from the pool if possible, otherwise a new one is created
+     * @param width The width of the bitmap
+     * @param height The height of the bitmap
+     * @param config The config of the bitmap
+     * @return A transparent bitmap which should be returned with {@link #release(Bitmap)}
+     */
+    public synchronized Bitmap acquire(int width, int height, Bitmap.Config config) {
+        Bitmap bitmap = take(key(width, height, config));
+        if (bitmap == null) bitmap = takeReconfigurable(width, height, config);
+
+        if (bitmap == null) {
+            missCount++;
+            return Bitmap.createBitmap(width, height, config);
+        }
+
+        hitCount++;
+        bitmap.eraseColor(Color.TRANSPARENT);
+        return bitmap;
+    }
+
+    /**
+     * Returns the bitmap to the pool. The bitmap must not be used afterwards
+     * @param bitmap The bitmap which was taken with {@link #acquire(int, int, Bitmap.Config)}
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable()) return;
+
+        int size = sizeOf(bitmap);
+        if (size > maxBytes) {
+            bitmap.recycle();
+            evictionCount++;
+            return;
+        }
+
+        long key = key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig());
+        ArrayList<Bitmap> bucket = buckets.get(key);
+
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.put(key, bucket);
+        }
+
+        bucket.add(bitmap);
+        released.add(bitmap);
+        bytes += size;
+
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Sets the maximal size of the pool (Default 4 MiB)
+     * @param maxBytes The maximal amount of bytes held by the pool
+     */
+    public synchronized void setMaxBytes(int maxBytes) {
+        this.maxBytes = maxBytes;
+        trimToSize(maxBytes);
+    }
+
+    /**
+     * Returns the maximal size of the pool
+     * @return The maximal amount of bytes held by the pool
+     */
+    public synchronized int getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Returns the current size of the pool
+     * @return The amount of bytes currently held by the pool
+     */
+    public synchronized int getSize() {
+        return bytes;
+    }
+
+    /**
+     * Returns how often a bitmap could be taken from the pool
+     * @return The number of hits
+     */
+    public synchronized int getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns how often a new bitmap had to be created
+     * @return The number of misses
+     */
+    public synchronized int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns how often a bitmap was recycled to respect the size limit
+     * @return The number of evictions
+     */
+    public synchronized int getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Recycles all pooled bitmaps
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    private Bitmap take(long key) {
+        ArrayList<Bitmap> bucket = buckets.get(key);
+        if (bucket == null || bucket.isEmpty()) return null;
+
+        Bitmap bitmap = bucket.remove(bucket.size() - 1);
+        remove(bitmap);
+        return bitmap;
+    }
+
+    // Since KitKat a larger bitmap can be reconfigured to the needed
+    // size, so the smallest pooled bitmap which is big enough is used
+    private Bitmap takeReconfigurable(int width, int height, Bitmap.Config config) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.KITKAT) return null;
+
+        int needed = width * height * bytesPerPixel(config);
+        Bitmap best = null;
+
+        for (Bitmap bitmap : released) {
+            int size = bitmap.getAllocationByteCount();
+            if (size >= needed && (best == null || size < best.getAllocationByteCount())) best = bitmap;
+        }
+
+        if (best == null) return null;
+
+        buckets.get(key(best.getWidth(), best.getHeight(), best.getConfig())).remove(best);
+        remove(best);
+
+        best.reconfigure(width, height, config);
+        return best;
+    }
+
+    private void remove(Bitmap bitmap) {
+        released.remove(bitmap);
+        bytes -= sizeOf(bitmap);
+    }
+
+    private void trimToSize(int maxBytes) {
+        while (bytes > maxBytes && !released.isEmpty()) {
+            Bitmap bitmap = released.get(0);
+
+            buckets.get(key(bitmap.getWidth(), bitmap.getHeight(), bitmap.getConfig())).remove(bitmap);
+            remove(bitmap);
+
+            bitmap.recycle();
+            evictionCount++;
+        }
+    }
+
+    private static int sizeOf(Bitmap bitmap) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) return bitmap.getAllocationByteCount();
+        return bitmap.getByteCount();
+    }
+
+    private static int bytesPerPixel(Bitmap.Config config) {
+        if (config == Bitmap.Config.ALPHA_8) return 1;
+        if (config == Bitmap.Config.RGB_565 || config == Bitmap.Config.ARGB_4444) return 2;
+        return 4;
+    }
+
+    private static long key(int width, int height, Bitmap.Config config) {
+        return ((long) width << 32) | ((long) height << 8) | config.ordinal();
+    }
+}
@@ -0,0 +1,86 @@
+package com.cilenco.discoveryview;
+
+/**
+ * Collects the metrics of one {@link DiscoveryView} for the process wide
+ * {@link DiscoveryMetricsListener}. All buffers are allocated with the
+ * instance, so recording a frame does not allocate anything.
+ */
+final class DiscoveryMetrics {
+    static final long DRAW_TIME_RESOLUTION = 100000;    // Width of a histogram bucket in ns (0.1 ms)
+    private static final int DRAW_TIME_BUCKETS = 200;   // Durations above 20 ms end in the last bucket
+
+    private static volatile DiscoveryMetricsListener listener;
+
+    private final int[] drawTimes;                      // Histogram of the onDraw durations
+    private int drawCount;                              // Counts the recorded onDraw calls
+
+    private long frameInterval;                         // Holds the expected time between two frames
+    private long lastFrameTime;                         // Holds the time of the last animation frame
+    private int frames;                                 // Counts the frames of the current animation
+    private int droppedFrames;                          // Counts the skipped frames of the current animation
+
+    DiscoveryMetrics(float refreshRate) {
+        drawTimes = new int[DRAW_TIME_BUCKETS];
+        frameInterval = (long) (1000000000 / (refreshRate > 0 ? refreshRate : 60));
+    }
+
+    static void setListener(DiscoveryMetricsListener listener) {
+        DiscoveryMetrics.listener = listener;
+    }
+
+    static DiscoveryMetricsListener getListener() {
+        return listener;
+    }
+
+    void recordDrawTime(long nanos) {
+        int bucket = (int) Math.min(nanos / DRAW_TIME_RESOLUTION, DRAW_TIME_BUCKETS - 1);
+        drawTimes[bucket]++;
+        drawCount++;
+    }
+
+    void reportDrawTimes(DiscoveryView discoveryView) {
+        DiscoveryMetricsListener listener = DiscoveryMetrics.listener;
+
+        if (listener != null && drawCount > 0) {
+            listener.onDrawTimes(discoveryView, drawCount, percentile(0.5f), percentile(0.9f), percentile(0.99f));
+        }
+
+        for (int i = 0; i < drawTimes.length; i++) drawTimes[i] = 0;
+        drawCount = 0;
+    }
+
+    // Returns the upper bound of the bucket which contains the percentile
+    private long percentile(float percentile) {
+        int rank = (int) Math.ceil(percentile * drawCount);
+        int count = 0;
+
+        for (int i = 0; i < drawTimes.length; i++) {
+            count += drawTimes[i];
+            if (count >= rank) return (i + 1) * DRAW_TIME_RESOLUTION;
+        }
+
+        return drawTimes.length * DRAW_TIME_RESOLUTION;
+    }
+
+    void startAnimation() {
+        lastFrameTime = 0;
+        frames = 0;
+        droppedFrames = 0;
+    }
+
+    void recordFrame(long frameTime) {
+        if (lastFrameTime != 0) {
+            // A frame is dropped if more than one and a half intervals passed
+            long interval = frameTime - lastFrameTime;
+            if (interval > frameInterval * 3 / 2) droppedFrames += Math.round((float) interval / frameInterval) - 1;
+        }
+
+        lastFrameTime = frameTime;
+        frames++;
+    }
+
+    void reportAnimation(DiscoveryView discoveryView, boolean flyIn) {
+        DiscoveryMetricsListener listener = DiscoveryMetrics.listener;
+        if (listener != null) listener.onFramesDropped(discoveryView, flyIn, frames, droppedFrames);
+    }
+}
@@ -0,0 +1,44 @@
+package com.cilenco.discoveryview;
+
+/**
+ * Receives performance metrics of all DiscoveryViews of the process. Metrics are
+ * only collected while a listener is set with
+ * {@link DiscoveryView#setMetricsListener(DiscoveryMetricsListener)}.
+ * All methods are called on the main thread.
+ */
+public interface DiscoveryMetricsListener {
+    /**
+     * Called when the view drew its first frame after it was shown
+     * @param discoveryView The view which drew the frame
+     * @param buildToFirstFrameNanos The time from Builder.build() (or show() if the
+     *                               view was not built by a Builder) to the first frame
+     */
+    void onFirstFrame(DiscoveryView discoveryView, long buildToFirstFrameNanos);
+
+    /**
+     * Called when the view is dismissed with the durations of its onDraw calls.
+     * The percentiles have a resolution of 0.1 ms
+     * @param discoveryView The dismissed view
+     * @param frames The number of drawn frames
+     * @param p50Nanos The median duration of onDraw
+     * @param p90Nanos The 90th percentile of the onDraw durations
+     * @param p99Nanos The 99th percentile of the onDraw durations
+     */
+    void onDrawTimes(DiscoveryView discoveryView, int frames, long p50Nanos, long p90Nanos, long p99Nanos);
+
+    /**
+     * Called after the flyIn or the flyOut animation ended
+     * @param discoveryView The animated view
+     * @param flyIn True for the flyIn, false for the flyOut
+     * @param frames The number of frames the animation was drawn with
+     * @param droppedFrames The number of frames which were skipped
+     */
+    void onFramesDropped(DiscoveryView discoveryView, boolean flyIn, int frames, int droppedFrames);
+
+    /**
+     * Called when the target was captured into a bitmap
+     * @param discoveryView The view which captured the target
+     * @param bytes The size of the snapshot bitmap
+     */
+    void onSnapshot(DiscoveryView discoveryView, int bytes);
+}
@@ -0,0 +1,202 @@
+package com.cilenco.discoveryview;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers which discoveries were already shown. The ids are read once in the
+ * background into an in-memory index, so checks on the main thread never touch the
+ * disk. Changes are collected and written together shortly after the last change.
+ * All methods except {@link #get(Context)} must be called on the main thread.
+ */
+@SuppressWarnings("unused")
+public final class DiscoveryRegistry {
+    private static final String PREFERENCES = "com.cilenco.discoveryview.registry";
+    private static final String KEY_SEEN = "seen";
+
+    private static final long WRITE_DELAY = 1000;
+
+    private static DiscoveryRegistry instance;
+
+    private final SharedPreferences preferences;    // Holds the persisted ids of the seen discoveries
+    private final Handler handler;                  // Used to publish the index and to batch the writes
+
+    private final HashMap<String, Integer> index;   // Holds the bit of every known id
+    private final BitSet seen;                      // Holds a set bit for every seen discovery
+
+    private final ArrayList<Runnable> pending;      // Holds the actions waiting for the index
+    private boolean loaded;                         // True if the index was read from the disk
+    private boolean writeScheduled;                 // True if a write of the index is scheduled
+
+    private DiscoveryRegistry(Context context) {
+        this.preferences = context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+        this.handler = new Handler(Looper.getMainLooper());
+
+        this.index = new HashMap<>();
+        this.seen = new BitSet();
+        this.pending = new ArrayList<>();
+
+        load();
+    }
+
+    /**
+     * Returns the registry of the app and starts to read it in the background
+     * @param context Any context of the app
+     * @return The process wide DiscoveryRegistry
+     */
+    public static synchronized DiscoveryRegistry get(Context context) {
+        if (instance == null) instance = new DiscoveryRegistry(context.getApplicationContext());
+        return instance;
+    }
+
+    private void load() {
+        AsyncTask.THREAD_POOL_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Set<String> ids = new HashSet<>(preferences.getStringSet(KEY_SEEN, new HashSet<String>()));
+
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Ids marked before the index was loaded are kept
+                        for (String id : ids) seen.set(indexOf(id));
+                        loaded = true;
+
+                        for (Runnable action : pending) action.run();
+                        pending.clear();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Returns if the ids were read from the disk. Until then {@link #isSeen(String)}
+     * only knows the ids marked in this process
+     * @return True if the registry is loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Runs the action on the main thread as soon as the registry is
+     * loaded. If it is loaded already, the action runs immediately
+     * @param action The action which needs the loaded registry
+     */
+    public void runWhenLoaded(Runnable action) {
+        if (loaded) action.run();
+        else pending.add(action);
+    }
+
+    /**
+     * Returns if the discovery was already shown
+     * @param id The id of the discovery
+     * @return True if the discovery was marked as seen
+     */
+    public boolean isSeen(String id) {
+        Integer bit = index.get(id);
+        return bit != null && seen.get(bit);
+    }
+
+    /**
+     * Marks the discovery as seen. The change is written to the disk in the background
+     * @param id The id of the discovery
+     */
+    public void markSeen(String id) {
+        int bit = indexOf(id);
+        if (seen.get(bit)) return;
+
+        seen.set(bit);
+        scheduleWrite();
+    }
+
+    /**
+     * Marks the discovery as not seen, so it is shown again
+     * @param id The id of the discovery
+     */
+    public void reset(final String id) {
+        if (!loaded) {
+            // The id may only be known from the disk, which is not read yet
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    reset(id);
+                }
+            });
+            return;
+        }
+
+        Integer bit = index.get(id);
+        if (bit == null || !seen.get(bit)) return;
+
+        seen.clear(bit);
+        scheduleWrite();
+    }
+
+    /**
+     * Marks all discoveries as not seen
+     */
+    public void resetAll() {
+        if (!loaded) {
+            pending.add(new Runnable() {
+                @Override
+                public void run() {
+                    resetAll();
+                }
+            });
+            return;
+        }
+
+        seen.clear();
+        scheduleWrite();
+    }
+
+    private int indexOf(String id) {
+        Integer bit = index.get(id);
+
+        if (bit == null) {
+            bit = index.size();
+            index.put(id, bit);
+        }
+
+        return bit;
+    }
+
+    // Changes within WRITE_DELAY are written together. The write waits
+    // for the index, otherwise the ids on the disk would be overwritten
+    private void scheduleWrite() {
+        if (writeScheduled) return;
+
+        writeScheduled = true;
+        handler.postDelayed(write, WRITE_DELAY);
+    }
+
+    private final Runnable write = new Runnable() {
+        @Override
+        public void run() {
+            if (!loaded) {
+                pending.add(this);
+                return;
+            }
+
+            HashSet<String> ids = new HashSet<>();
+            for (Map.Entry<String, Integer> entry : index.entrySet()) {
+                if (seen.get(entry.getValue())) ids.add(entry.getKey());
+            }
+
+            writeScheduled = false;
+            preferences.edit().putStringSet(KEY_SEEN, ids).apply(); // Written to the disk in the background
+        }
+    };
+}
@@ -0,0 +1,223 @@
+package com.cilenco.discoveryview;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.AsyncTask;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.annotation.NonNull;
+import android.support.annotation.StringRes;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+/**
+ * Shows several discoveries one after another in a single {@link DiscoveryView}.
+ * A click on the view moves the highlight to the next target. While a step is
+ * shown the texts of the next step are measured in the background and its target
+ * is captured when the main thread is idle, so the next move starts immediately.
+ */
+@SuppressWarnings("unused")
+public class DiscoverySequence implements DiscoveryView.OnDiscoveryViewClickListener, MessageQueue.IdleHandler {
+    private final Context context;                  // Holds the context of the DiscoveryView
+    private final ArrayList<Step> steps;            // Holds all steps of the sequence in order
+
+    private OnSequenceListener listener;            // Holds the listener to react to sequence events
+    private Executor executor;                      // Used to measure the texts of the next step
+
+    private boolean defaultFilter;                  // True if the targets are painted as silhouette
+    private int hostMode;                           // Holds where the DiscoveryView is displayed
+
+    private DiscoveryView discoveryView;            // Holds the view which shows all steps
+    private int index;                              // Holds the index of the current step
+
+    private Bitmap preparedSnapshot;                // Holds the captured target of the next step
+    private int preparedIndex;                      // Holds the step index of preparedSnapshot
+
+    public interface OnSequenceListener {
+        void onStepShown(DiscoverySequence sequence, int index);
+        void onSequenceFinished(DiscoverySequence sequence);
+    }
+
+    private static class Step {
+        private final View target;
+        private final String primaryText;
+        private final String secondaryText;
+
+        Step(View target, String primaryText, String secondaryText) {
+            this.target = target;
+            this.primaryText = primaryText;
+            this.secondaryText = secondaryText;
+        }
+    }
+
+    public DiscoverySequence(Context context) {
+        this.context = context;
+        this.steps = new ArrayList<>();
+        this.executor = AsyncTask.THREAD_POOL_EXECUTOR;
+        this.hostMode = DiscoveryView.HOST_DIALOG;
+        this.index = -1;
+        this.preparedIndex = -1;
+    }
+
+    public DiscoverySequence addStep(@NonNull View target, @StringRes int primaryText, @StringRes int secondaryText) {
+        return addStep(target, context.getString(primaryText), context.getString(secondaryText));
+    }
+
+    public DiscoverySequence addStep(@NonNull View target, String primaryText, String secondaryText) {
+        steps.add(new Step(target, primaryText, secondaryText));
+        return this;
+    }
+
+    public DiscoverySequence setOnSequenceListener(OnSequenceListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Sets the executor which measures the texts of the next step (Default
+     * {@link AsyncTask#THREAD_POOL_EXECUTOR})
+     * @param executor The executor used for the background work
+     * @return This sequence
+     */
+    public DiscoverySequence setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    public DiscoverySequence usePrimaryColorAsFilter(boolean choise) {
+        this.defaultFilter = choise;
+        return this;
+    }
+
+    public DiscoverySequence setHostMode(int hostMode) {
+        this.hostMode = hostMode;
+        return this;
+    }
+
+    /**
+     * Returns the view which shows the steps. It can be used to change the
+     * colors or typefaces, which are kept for all following steps
+     * @return The DiscoveryView or null if the sequence is not running
+     */
+    public DiscoveryView getDiscoveryView() {
+        return discoveryView;
+    }
+
+    /**
+     * Returns the index of the step which is currently shown
+     * @return The index of the current step or -1 if the sequence is not running
+     */
+    public int getCurrentStep() {
+        return index;
+    }
+
+    /**
+     * Shows the first step of the sequence
+     */
+    public void start() {
+        if (steps.isEmpty() || discoveryView != null) return;
+
+        index = 0;
+        Step step = steps.get(0);
+
+        discoveryView = new DiscoveryView.Builder(context, step.target)
+                .setPrimaryText(step.primaryText)
+                .setSecondaryText(step.secondaryText)
+                .usePrimaryColorAsFilter(defaultFilter)
+                .setHostMode(hostMode)
+                .setOnClickListener(this)
+                .build();
+
+        discoveryView.show();
+        if (listener != null) listener.onStepShown(this, index);
+
+        prepareNextStep();
+    }
+
+    /**
+     * Moves the highlight to the next step or dismisses the view after the last step
+     */
+    public void next() {
+        if (discoveryView == null) return;
+
+        if (index + 1 >= steps.size()) {
+            discoveryView.dismiss();
+            return;
+        }
+
+        index++;
+        Step step = steps.get(index);
+
+        Bitmap snapshot = preparedIndex == index ? preparedSnapshot : null;
+        preparedSnapshot = null;
+        preparedIndex = -1;
+
+        discoveryView.moveTo(step.target, snapshot, step.primaryText, step.secondaryText);
+        if (listener != null) listener.onStepShown(this, index);
+
+        prepareNextStep();
+    }
+
+    /**
+     * Dismisses the view without showing the remaining steps
+     */
+    public void finish() {
+        if (discoveryView != null) discoveryView.dismiss();
+    }
+
+    private void prepareNextStep() {
+        if (index + 1 >= steps.size()) return;
+
+        Step step = steps.get(index + 1);
+        discoveryView.prepareLayouts(step.primaryText, step.secondaryText, executor);
+
+        // The target can only be drawn on the main thread, which
+        // is done as soon as it has nothing else to do
+        Looper.myQueue().addIdleHandler(this);
+    }
+
+    @Override
+    public boolean queueIdle() {
+        int next = index + 1;
+
+        if (discoveryView != null && next < steps.size() && preparedIndex != next) {
+            releasePreparedSnapshot();
+            View target = steps.get(next).target;
+
+            // A target which is drawn directly needs no snapshot
+            if (discoveryView.chooseRenderMode(target) == DiscoveryView.TARGET_RENDER_BITMAP) {
+                preparedSnapshot = discoveryView.captureTarget(target);
+                preparedIndex = next;
+            }
+        }
+
+        return false;
+    }
+
+    private void releasePreparedSnapshot() {
+        if (preparedSnapshot == null) return;
+
+        BitmapPool.get().release(preparedSnapshot);
+        preparedSnapshot = null;
+        preparedIndex = -1;
+    }
+
+    @Override
+    public void onDiscoveryViewClicked(DiscoveryView discoveryView) {
+        next();
+    }
+
+    @Override
+    public void onDiscoveryViewDismissed(DiscoveryView discoveryView) {
+        Looper.myQueue().removeIdleHandler(this);
+        releasePreparedSnapshot();
+
+        this.discoveryView = null;
+        this.index = -1;
+
+        discoveryView.recycle();
+        if (listener != null) listener.onSequenceFinished(this);
+    }
+}
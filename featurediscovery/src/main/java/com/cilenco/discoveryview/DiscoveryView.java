@@ -1,10 +1,13 @@
 package com.cilenco.discoveryview;
 
 import android.animation.Animator;
-import android.animation.AnimatorInflater;
+import android.animation.AnimatorListenerAdapter;
 import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
+import android.animation.ValueAnimator;
+import android.annotation.TargetApi;
 import android.app.Activity;
+import android.app.Application;
 import android.app.Dialog;
 import android.content.Context;
 import android.content.DialogInterface;
@@ -16,50 +19,116 @@ import android.graphics.Color;
 import android.graphics.ColorFilter;
 import android.graphics.LightingColorFilter;
 import android.graphics.Paint;
+import android.graphics.Picture;
 import android.graphics.PointF;
+import android.graphics.PorterDuff;
+import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
 import android.graphics.Typeface;
 import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.SystemClock;
+import android.support.annotation.AnimatorRes;
 import android.support.annotation.ColorRes;
 import android.support.annotation.NonNull;
 import android.support.annotation.StringRes;
 import android.support.v4.content.ContextCompat;
+import android.support.v4.graphics.ColorUtils;
+import android.support.v4.os.TraceCompat;
 import android.text.Layout;
 import android.text.StaticLayout;
 import android.text.TextPaint;
 import android.util.AttributeSet;
 import android.util.DisplayMetrics;
+import android.util.FloatProperty;
+import android.util.IntProperty;
+import android.util.Property;
+import android.util.SparseIntArray;
 import android.util.TypedValue;
 import android.view.GestureDetector;
+import android.view.KeyEvent;
 import android.view.MotionEvent;
+import android.view.SurfaceView;
+import android.view.TextureView;
 import android.view.View;
+import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.Window;
 import android.view.WindowManager;
+import android.view.animation.LinearInterpolator;
 
 import java.util.ArrayList;
-
-import static java.lang.Math.pow;
-import static java.lang.Math.sqrt;
+import java.util.WeakHashMap;
+import java.util.concurrent.Executor;
 
 public class DiscoveryView extends View {
     private static final int TEXT_PADDING_TOP = 40;
     private static final int TEXT_PADDING_LR = 40;
     private static final int TEXT_DISTANCE = 16;
-    private static final int TARGET_RADIUS = 44;
+    private static final int TARGET_RADIUS_DP = 44;
 
     private static final int PRIMARY_TEXT_SIZE = 18;
     private static final int SECONDARY_TEXT_SIZE = 16;
 
+    /** The view is displayed in its own translucent dialog window (Default) */
+    public static final int HOST_DIALOG = 0;
+
+    /** The view is added to the decor view of the activity, no window is created */
+    public static final int HOST_DECOR_VIEW = 1;
+
+    /** The target is drawn from a snapshot bitmap which is taken in setTarget (Default) */
+    public static final int TARGET_RENDER_BITMAP = 0;
+
+    /** The target is drawn live by its own draw method, no snapshot is taken */
+    public static final int TARGET_RENDER_DIRECT = 1;
+
+    private static final int BACKGROUND_ALPHA = 245;
+
+    private static final int POOL_SIZE = 2;
+
+    private static final DiscoveryView[] pool = new DiscoveryView[POOL_SIZE];
+    private static int poolSize;
+    private static boolean poolWatched;             // True if the destruction of activities is observed for the pool
+
+    private static final WeakHashMap<Resources.Theme, SparseIntArray> themeColors = new WeakHashMap<>();
+
+    private static long coldTimeToFirstFrame = -1;  // Holds the time to the first frame of the first show
+    private static long warmTimeToFirstFrame = -1;  // Holds the time to the first frame of the last show
+
+    private static final int PHASE_NONE = 0;
+    private static final int PHASE_FLY_IN = 1;
+    private static final int PHASE_PULSE = 2;
+    private static final int PHASE_FLY_OUT = 3;
+    private static final int PHASE_MOVE = 4;
+
     private OnDiscoveryViewClickListener listener;  // Holds the listener to react to events on the View
     private GestureDetector gestureDetector;        // Used to recognize click (in feature maybe other) events
 
-    private Dialog dialog;                          // Holds the overlay dialog where the view is displayed
+    private Dialog dialog;                          // Holds the overlay dialog (created on first show)
+    private int hostMode;                           // Holds where the view is displayed (HOST_ constants)
+
+    private Application watchedApplication;         // Holds the application while the host activity is observed
+    private HostLifecycle hostLifecycle;            // Observes the host activity while the view is shown
+    private boolean hostDestroyed;                  // True if the activity of the view was destroyed
+    private String discoveryId;                     // Holds the id in the DiscoveryRegistry or null
+
+    private boolean trackTarget;                    // True if the highlight follows the target while shown
+    private View trackedTarget;                     // Holds the target whose pre draw listener is registered
     private View target;                            // Holds the View target to discover
     private PointF center;                          // Represents the center of the target View
 
+    private ArrayList<ExtraTarget> extraTargets;    // Holds the further targets highlighted with the target
+    private float[] extraCenters;                   // Holds the centers of extraTargets for the GeometrySolver
+
     private Paint colorPaint;                       // Used to paint the background
-    private TextPaint primaryTextPaint;             // Used to paint the primaryText
-    private TextPaint secondaryTextPaint;           // Used to paint the secondaryText
+    private Paint ringPaint;                        // Used to paint the rings of the spotlight
+    private boolean spotlight;                      // True if the highlight is drawn without overdraw
+    private float overdraw;                         // Holds the overdraw of the highlight in the last frame
+    private TextPaint primaryTextPaint;             // Used to measure the primaryText
+    private TextPaint secondaryTextPaint;           // Used to measure the secondaryText
 
     private int backgroundColor;                    // Holds the backgroundColor of the View
     private int primaryTextColor;                   // Holds the primaryTextColor
@@ -80,6 +149,7 @@ public class DiscoveryView extends View {
     private float secondaryTextY;                   // Holds the Y-position of the secondaryText
 
     private float bgRadius;                         // Holds the radius of the background
+    private GeometrySolver geometry;                // Solves the text positions and bgRadius
     private float targetRadiusDp;                   // Holds the target radius in dp
     private float animTargetRadiusDp;               // Holds the animated target radius in dp
 
@@ -89,6 +159,70 @@ public class DiscoveryView extends View {
     private ColorFilter colorFilter;                // Used to paint the target in another color
     private Bitmap targetBitmap;                    // Used to paint the target on the view surface
     private int targetAlpha;                        // Used to animate the alpha of targetBitmap
+    private boolean silhouette;                     // True if the target is painted as ALPHA_8 mask
+    private int silhouetteColor;                    // Holds the color of the silhouette
+
+    private boolean directRendering;                // True if the target should be drawn without a snapshot
+    private int targetRenderMode;                   // Holds how the target is drawn (TARGET_RENDER_ constants)
+    private Paint targetLayerPaint;                 // Used to apply alpha and filters to the live target
+    private PorterDuffColorFilter silhouetteFilter; // Used to paint the live target as silhouette
+    private int silhouetteFilterColor;              // Holds the color of silhouetteFilter
+
+    private ValueAnimator clock;                     // Single frame clock which drives every animation
+    private int phase;                              // Holds the animation phase the clock is running
+    private int endedPhase;                         // Holds the phase which ended last (see phaseEnd)
+    private long phaseDuration;                     // Holds the duration of the current phase in ms
+    private float trackTimeScale;                   // Converts track times to the scaled times tracks seek to before API 24
+
+    private ArrayList<ObjectAnimator> tracks;       // Holds the tracks of the current phase
+    private ArrayList<ObjectAnimator> flyInTracks;  // Holds the tracks of fly_in (loaded once per view)
+    private ArrayList<ObjectAnimator> flyOutTracks; // Holds the tracks of fly_out (loaded once per view)
+    private ArrayList<ObjectAnimator> pulseTracks;  // Holds the tracks of pulse (loaded once per view)
+    private ArrayList<ObjectAnimator> moveTracks;   // Holds the tracks of move (loaded once per view)
+
+    private int flyInRes;                           // Holds the animator resource of the flyIn
+    private int flyOutRes;                          // Holds the animator resource of the flyOut
+    private int pulseRes;                           // Holds the animator resource of the pulse
+
+    private PointF moveFromCenter;                  // Holds the center at the start of a move
+    private PointF moveToCenter;                    // Holds the center at the end of a move
+    private float moveFromBgRadius;                 // Holds the background radius at the start of a move
+    private float moveToBgRadius;                   // Holds the background radius at the end of a move
+    private float moveProgress;                     // Holds the progress of the current move (0 - 1)
+
+    private StaticLayout previousPrimaryLayout;     // Holds the primaryText shown before a move
+    private StaticLayout previousSecondaryLayout;   // Holds the secondaryText shown before a move
+    private float previousPrimaryY;                 // Holds the Y-position of previousPrimaryLayout
+    private float previousSecondaryY;               // Holds the Y-position of previousSecondaryLayout
+
+    private boolean pulsePaused;                    // True while the pulse is paused by pausePulse()
+    private boolean pulseStatic;                    // True while the pulse phase shows the static highlight
+    private PulsePolicy pulsePolicy;                // Holds when and how often the view pulses
+    private boolean pulseLimited;                   // True while the pulse frames are posted instead of driven by the clock
+    private long pulseStart;                        // Holds the uptime at which the limited pulse started in ms
+    private long pulsePauseTime;                    // Holds the uptime at which the limited pulse was paused in ms
+
+    private int drawnFrames;                        // Counts the frames drawn in the current minute
+    private int framesPerMinute;                    // Holds the frames drawn in the last minute
+    private long frameWindowStart;                  // Holds the start time of the current minute
+
+    private Picture staticLayer;                    // Holds the recorded text and target after the flyIn
+    private boolean staticLayerValid;               // True if staticLayer matches the current state
+
+    private long showTime;                          // Holds the time of show() until the first frame
+    private long buildTime;                         // Holds the time of Builder.build() until the first frame
+    private DiscoveryMetrics discoveryMetrics;      // Collects the metrics if a listener is set
+
+    private Rect dirtyRect;                         // Holds the area invalidated while pulsing
+    private float dirtyRadius;                      // Holds the ripple radius of the last pulse frame
+    private long invalidatedPixels;                 // Counts the invalidated pixels of the current second
+    private long invalidatedPixelsPerSecond;        // Holds the invalidated pixels of the last second
+    private long invalidationWindowStart;           // Holds the start time of the current second
+
+    private int[] location;                         // Reused to read screen positions without allocations
+    private int[] hostLocation;                     // Reused to read the position of the decor view
+    private Rect touchArea;                         // Reused to hit test the target on every tap
+    private Rect windowFrame;                       // Reused to read the visible frame of the dialog window
 
     public interface OnDiscoveryViewClickListener {
         void onDiscoveryViewClicked(DiscoveryView discoveryView);
@@ -119,7 +253,74 @@ public class DiscoveryView extends View {
         textPaddingTopDp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TEXT_PADDING_TOP, metrics);
         textPaddingLrDp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TEXT_PADDING_LR, metrics);
         textDistanceDp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TEXT_DISTANCE, metrics);
-        targetRadiusDp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TARGET_RADIUS, metrics);
+        geometry = new GeometrySolver(textPaddingLrDp, textPaddingTopDp, textDistanceDp, textPaddingLrDp);
+
+        primaryTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        secondaryTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+
+        colorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        colorPaint.setStyle(Paint.Style.FILL);
+        targetLayerPaint = new Paint();
+        ringPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+        applyDefaults();
+
+        center = new PointF();
+        extraTargets = new ArrayList<>();
+        extraCenters = new float[0];
+        moveFromCenter = new PointF();
+        moveToCenter = new PointF();
+        dirtyRect = new Rect();
+
+        location = new int[2];
+        hostLocation = new int[2];
+        touchArea = new Rect();
+        windowFrame = new Rect();
+
+        ClockListener clockListener = new ClockListener();
+        clock = ValueAnimator.ofFloat(0f, 1f);
+        clock.setInterpolator(new LinearInterpolator());
+        clock.addUpdateListener(clockListener);
+        clock.addListener(clockListener);
+    }
+
+    // A shown view and its dialog must not outlive the activity, so the destruction of the
+    // activity is observed from show() until the view is dismissed, recycled or torn down
+    private void watchLifecycle() {
+        if (watchedApplication != null || !(getContext() instanceof Activity)) return;
+
+        watchedApplication = ((Activity) getContext()).getApplication();
+        if (watchedApplication == null) return;
+
+        if (hostLifecycle == null) hostLifecycle = new HostLifecycle();
+        watchedApplication.registerActivityLifecycleCallbacks(hostLifecycle);
+    }
+
+    private void unwatchLifecycle() {
+        if (watchedApplication == null) return;
+
+        watchedApplication.unregisterActivityLifecycleCallbacks(hostLifecycle);
+        watchedApplication = null;
+    }
+
+    // Pooled views are dropped as soon as their activity is destroyed. The callback is
+    // static and registered once, so it does not hold any view or activity itself
+    private static void watchPool(Context context) {
+        if (poolWatched || !(context instanceof Activity)) return;
+
+        Application application = ((Activity) context).getApplication();
+        if (application == null) return;
+
+        application.registerActivityLifecycleCallbacks(new PoolLifecycle());
+        poolWatched = true;
+    }
+
+    // Sets every value which can be changed by the Builder to its default
+    private void applyDefaults() {
+        DisplayMetrics metrics = getContext().getResources().getDisplayMetrics();
+        pulsePolicy = new PulsePolicy();
+
+        targetRadiusDp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TARGET_RADIUS_DP, metrics);
 
         float primaryTextSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, PRIMARY_TEXT_SIZE, metrics);
         float secondaryTextSize = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, SECONDARY_TEXT_SIZE, metrics);
@@ -128,20 +329,117 @@ public class DiscoveryView extends View {
         primaryTextColor = Color.WHITE;
         secondaryTextColor = Color.WHITE;
 
-        primaryTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
-        secondaryTextPaint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
-
-        colorPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        colorPaint.setStyle(Paint.Style.FILL);
         colorPaint.setColor(backgroundColor);
 
+        setFlyInAnimator(R.animator.fly_in);
+        setFlyOutAnimator(R.animator.fly_out);
+        setPulseAnimator(R.animator.pulse);
+
         setBackgroundColor(backgroundColor);
         setPrimaryTextSize(primaryTextSize);
         setSecondaryTextSize(secondaryTextSize);
+        setPrimaryTextTypeface(null);
+        setSecondaryTextTypeface(null);
+    }
 
-        dialog = new Dialog(getContext(), android.R.style.Theme_Translucent_NoTitleBar);
-        dialog.setContentView(this);
-        center = new PointF();
+    /**
+     * Returns a DiscoveryView for the given context. A recycled view of the same
+     * context is reused if available, which keeps its paints, dialog and animations
+     * @param context The context of the DiscoveryView
+     * @return A reset DiscoveryView which can be set up like a new one
+     */
+    public static DiscoveryView obtain(Context context) {
+        synchronized (pool) {
+            for (int i = poolSize - 1; i >= 0; i--) {
+                DiscoveryView view = pool[i];
+                if (view.getContext() != context) continue;
+
+                pool[i] = pool[--poolSize];
+                pool[poolSize] = null;
+                return view;
+            }
+        }
+
+        return new DiscoveryView(context);
+    }
+
+    /**
+     * Resets the view and returns it to the pool used by {@link #obtain(Context)}.
+     * The target, the texts and the listener are cleared, so the view must not
+     * be used afterwards. Should be called after the view was dismissed
+     */
+    public void recycle() {
+        reset();
+
+        synchronized (pool) {
+            // Views of a finishing or destroyed activity are not pooled so they do not leak it
+            for (int i = poolSize - 1; i >= 0; i--) {
+                if (!isFinishing(pool[i].getContext())) continue;
+
+                pool[i] = pool[--poolSize];
+                pool[poolSize] = null;
+            }
+
+            // A view whose activity was destroyed already is never pooled again
+            if (poolSize < POOL_SIZE && !isFinishing(getContext()) && !hostDestroyed) {
+                pool[poolSize++] = this;
+                watchPool(getContext());
+            }
+        }
+    }
+
+    private void reset() {
+        stopClock();
+        if (isShowing()) removeFromHost();
+        releaseTargetBitmap();
+        releaseTargets();
+
+        discoveryId = null;
+        hostMode = HOST_DIALOG;
+        showTime = 0;
+        buildTime = 0;
+        primaryText = null;
+        secondaryText = null;
+        primaryTextLayout = null;
+        secondaryTextLayout = null;
+        previousPrimaryLayout = null;
+        previousSecondaryLayout = null;
+
+        colorFilter = null;
+        silhouette = false;
+        trackTarget = false;
+        directRendering = false;
+        spotlight = false;
+        targetRenderMode = TARGET_RENDER_BITMAP;
+
+        bgRadius = 0;
+        animTargetRadiusDp = 0;
+        rippleWidth = 0;
+        rippleAlpha = 0;
+        targetAlpha = 0;
+        textAlpha = 0;
+
+        applyDefaults();
+        invalidateStaticLayer();
+    }
+
+    // The targets and the listener may hold the activity, so a view which is
+    // not shown anymore keeps none of them (e.g. while it waits for recycle())
+    private void releaseTargets() {
+        stopTracking();
+        unwatchLifecycle();
+
+        target = null;
+        extraTargets.clear();
+        listener = null;
+    }
+
+    private static boolean isFinishing(Context context) {
+        if (!(context instanceof Activity)) return false;
+
+        Activity activity = (Activity) context;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1 && activity.isDestroyed()) return true;
+        return activity.isFinishing();
     }
 
     /**
@@ -149,24 +447,298 @@ public class DiscoveryView extends View {
      * @param target View target of the DiscoveryView
      */
     public void setTarget(@NonNull View target) {
+        TraceCompat.beginSection("DiscoveryView.setTarget");
         this.target = target;
 
-        int pos[] = new int[2];
-        target.getLocationOnScreen(pos);
+        updateCenter();
+        snapshotTarget();
+        TraceCompat.endSection();
+    }
 
-        Rect rectangle = new Rect();
-        Window window = ((Activity) getContext()).getWindow();
-        window.getDecorView().getWindowVisibleDisplayFrame(rectangle);
-        int statusBarHeight = rectangle.top;
+    // Returns true if the center has changed
+    private boolean updateCenter() {
+        boolean changed = locate(target, center);
+
+        for (int i = 0; i < extraTargets.size(); i++) {
+            ExtraTarget extra = extraTargets.get(i);
+            changed |= locate(extra.view, extra.center);
+        }
+
+        if (changed) invalidateStaticLayer();
+        return changed;
+    }
+
+    // Sets the point to the center of the view in the coordinates of this view
+    private boolean locate(View view, PointF point) {
+        view.getLocationOnScreen(location);
+
+        int offsetX = 0;
+        int offsetY;
+
+        if (hostMode == HOST_DECOR_VIEW) {
+            // The decor view is the coordinate system of the view
+            getDecorView().getLocationOnScreen(hostLocation);
+
+            offsetX = hostLocation[0];
+            offsetY = hostLocation[1];
+        } else {
+            getDecorView().getWindowVisibleDisplayFrame(windowFrame);
+            offsetY = windowFrame.top; // The dialog window starts below the status bar
+        }
+
+        float x = location[0] - offsetX + view.getWidth() / 2;
+        float y = location[1] - offsetY + view.getHeight() / 2;
+        if (x == point.x && y == point.y) return false;
+
+        point.set(x, y);
+        return true;
+    }
+
+    /**
+     * Highlights a further view together with the target. All targets share the
+     * pulse and the texts are placed clear of every target. The background grows
+     * until it encloses all targets, so they should be close to each other
+     * @param target A further target of the DiscoveryView
+     */
+    public void addTarget(@NonNull View target) {
+        ExtraTarget extra = new ExtraTarget(target);
+        extraTargets.add(extra);
+
+        locate(target, extra.center);
+        if (this.target != null) snapshotTarget();
+    }
+
+    /**
+     * Returns the number of targets which are highlighted
+     * @return The number of targets including the main target
+     */
+    public int getTargetCount() {
+        return (target != null ? 1 : 0) + extraTargets.size();
+    }
+
+    /**
+     * Sets where the view is displayed. With {@link #HOST_DECOR_VIEW} the view is added
+     * to the decor view of the activity, which avoids the creation of a dialog window
+     * @param hostMode Either {@link #HOST_DIALOG} or {@link #HOST_DECOR_VIEW}
+     */
+    public void setHostMode(int hostMode) {
+        if (this.hostMode == hostMode) return;
+        this.hostMode = hostMode;
+
+        if (hostMode == HOST_DECOR_VIEW && dialog != null && !dialog.isShowing()) {
+            // A reused view is still the content of its dialog and must leave it for the decor view
+            if (getParent() instanceof ViewGroup) ((ViewGroup) getParent()).removeView(this);
+            dialog = null;
+        }
+
+        if (target != null) updateCenter();
+    }
+
+    /**
+     * Returns where the view is displayed
+     * @return Either {@link #HOST_DIALOG} or {@link #HOST_DECOR_VIEW}
+     */
+    public int getHostMode() {
+        return hostMode;
+    }
+
+    /**
+     * Lets the highlight follow the target while the view is shown. The center and
+     * the texts are updated at most once per frame when the target scrolls, moves or
+     * is laid out again. The target is only captured again if it was invalidated
+     * itself, which can be detected since Lollipop (Default false)
+     * @param trackTarget True if the highlight should follow the target
+     */
+    public void setTrackTarget(boolean trackTarget) {
+        this.trackTarget = trackTarget;
+
+        if (!trackTarget) stopTracking();
+        else if (isShowing()) startTracking();
+    }
+
+    /**
+     * Returns if the highlight follows the target
+     * @return True if the target is tracked while the view is shown
+     */
+    public boolean isTrackingTarget() {
+        return trackTarget;
+    }
+
+    /**
+     * Draws the target live instead of a snapshot, so no bitmap is allocated and
+     * state changes of the target stay visible. Targets which can not be drawn
+     * directly, like view groups or views with an own layer, still use a snapshot.
+     * Use {@link #getTargetRenderMode()} to see which way was chosen (Default false)
+     * @param directRendering True if the target should be drawn without a snapshot
+     */
+    public void setDirectRendering(boolean directRendering) {
+        if (this.directRendering == directRendering) return;
+        this.directRendering = directRendering;
+
+        if (target != null) snapshotTarget();
+    }
+
+    /**
+     * Returns how the current target is drawn
+     * @return Either {@link #TARGET_RENDER_BITMAP} or {@link #TARGET_RENDER_DIRECT}
+     */
+    public int getTargetRenderMode() {
+        return targetRenderMode;
+    }
+
+    private void startTracking() {
+        stopTracking();
+        if (target == null) return;
+
+        trackedTarget = target;
+        trackedTarget.getViewTreeObserver().addOnPreDrawListener(tracker);
+    }
+
+    private void stopTracking() {
+        if (trackedTarget == null) return;
+
+        // A dead observer has passed its listeners on to the current observer of the view
+        trackedTarget.getViewTreeObserver().removeOnPreDrawListener(tracker);
+        trackedTarget = null;
+    }
+
+    // Called once per frame of the target window, so all changes of
+    // the target during a frame are applied together before it is drawn
+    private final ViewTreeObserver.OnPreDrawListener tracker = new ViewTreeObserver.OnPreDrawListener() {
+        @Override
+        public boolean onPreDraw() {
+            if (target == null || phase == PHASE_MOVE) return true; // moveTo() animates the center itself
+            boolean changed = false;
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && target.isDirty()) {
+                snapshotTarget();
+                changed = true;
+            }
+
+            if (updateCenter() && primaryTextLayout != null && getWidth() > 0) {
+                setupMetrics(getWidth(), getHeight());
+                changed = true;
+            }
+
+            if (changed) invalidate();
+            return true;
+        }
+    };
+
+    // Draws the target into a bitmap borrowed from the BitmapPool.
+    // The bitmap is returned to the pool when the view is dismissed
+    private void snapshotTarget() {
+        releaseTargetBitmap();
+
+        targetRenderMode = chooseRenderMode(target);
+        if (targetRenderMode == TARGET_RENDER_BITMAP) targetBitmap = captureTarget(target);
 
-        center.x = pos[0] + target.getWidth() / 2;
-        center.y = pos[1] + target.getHeight() / 2 - statusBarHeight;
+        for (int i = 0; i < extraTargets.size(); i++) {
+            ExtraTarget extra = extraTargets.get(i);
+            extra.renderMode = chooseRenderMode(extra.view);
+            if (extra.renderMode == TARGET_RENDER_BITMAP) extra.bitmap = captureTarget(extra.view);
+        }
+
+        invalidateStaticLayer();
+    }
+
+    // Returns how the target can be drawn. Views which draw children, other windows
+    // or an own layer can not be replayed into this view and fall back to a snapshot
+    int chooseRenderMode(View target) {
+        if (!directRendering || target.getWidth() == 0 || target.getHeight() == 0) return TARGET_RENDER_BITMAP;
+        if (target instanceof ViewGroup || target instanceof SurfaceView || target instanceof TextureView) return TARGET_RENDER_BITMAP;
+        if (target.getLayerType() != LAYER_TYPE_NONE) return TARGET_RENDER_BITMAP;
 
-        targetBitmap = Bitmap.createBitmap(target.getWidth(), target.getHeight(), Bitmap.Config.ARGB_8888);
+        return TARGET_RENDER_DIRECT;
+    }
+
+    // Returns a snapshot of the target in the config this view paints it.
+    // Used by DiscoverySequence to capture the next target ahead of time
+    Bitmap captureTarget(View target) {
+        // A silhouette only needs the alpha channel of the target
+        Bitmap.Config config = silhouette ? Bitmap.Config.ALPHA_8 : Bitmap.Config.ARGB_8888;
+        Bitmap bitmap = BitmapPool.get().acquire(target.getWidth(), target.getHeight(), config);
         target.layout(target.getLeft(), target.getTop(), target.getRight(), target.getBottom());
 
-        Canvas c = new Canvas(targetBitmap);
+        Canvas c = new Canvas(bitmap);
         target.draw(c);
+
+        DiscoveryMetricsListener listener = DiscoveryMetrics.getListener();
+        if (listener != null) listener.onSnapshot(this, bitmap.getByteCount());
+
+        return bitmap;
+    }
+
+    // Measures the texts on the executor with the paints of this view, so the
+    // layouts are found in the TextLayoutCache when moveTo() sets up the texts
+    void prepareLayouts(final String primaryText, final String secondaryText, Executor executor) {
+        final TextPaint primaryPaint = new TextPaint(primaryTextPaint);
+        final TextPaint secondaryPaint = new TextPaint(secondaryTextPaint);
+        // Before its first layout the view is as wide as the screen
+        int w = getWidth() > 0 ? getWidth() : getResources().getDisplayMetrics().widthPixels;
+        final int width = (int) (w - 2 * textPaddingLrDp);
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                TextLayoutCache layoutCache = TextLayoutCache.get();
+                layoutCache.obtain(primaryText, primaryPaint, width);
+                layoutCache.obtain(secondaryText, secondaryPaint, width);
+            }
+        });
+    }
+
+    // Moves the highlight of the shown view from the current target to the new
+    // one. The texts are faded out and in while the center moves, see move.xml
+    void moveTo(View target, Bitmap snapshot, String primaryText, String secondaryText) {
+        previousPrimaryLayout = primaryTextLayout;
+        previousSecondaryLayout = secondaryTextLayout;
+        previousPrimaryY = primaryTextY;
+        previousSecondaryY = secondaryTextY;
+
+        moveFromCenter.set(center);
+        moveFromBgRadius = bgRadius;
+
+        releaseTargetBitmap();
+        extraTargets.clear(); // A move highlights a single target again
+
+        this.target = target;
+        this.primaryText = primaryText;
+        this.secondaryText = secondaryText;
+
+        targetRenderMode = chooseRenderMode(target);
+
+        if (targetRenderMode == TARGET_RENDER_BITMAP) targetBitmap = snapshot != null ? snapshot : captureTarget(target);
+        else BitmapPool.get().release(snapshot);
+        if (trackedTarget != null) startTracking();
+
+        // The metrics are set up for the new center, the
+        // move then starts at the previous center again
+        updateCenter();
+        setupLayouts(getWidth(), getHeight());
+
+        moveToCenter.set(center);
+        moveToBgRadius = bgRadius;
+
+        center.set(moveFromCenter);
+        bgRadius = moveFromBgRadius;
+        targetAlpha = 255;
+
+        if (moveTracks == null) moveTracks = loadTracks(R.animator.move);
+        startPhase(PHASE_MOVE, moveTracks, false);
+    }
+
+    private void releaseTargetBitmap() {
+        for (int i = 0; i < extraTargets.size(); i++) {
+            ExtraTarget extra = extraTargets.get(i);
+            BitmapPool.get().release(extra.bitmap);
+            extra.bitmap = null;
+        }
+
+        if (targetBitmap == null) return;
+
+        BitmapPool.get().release(targetBitmap);
+        targetBitmap = null;
     }
 
     /**
@@ -184,28 +756,61 @@ public class DiscoveryView extends View {
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
+        setupLayouts(w, h);
+    }
 
+    private void setupLayouts(int w, int h) {
+        TraceCompat.beginSection("DiscoveryView.setupLayouts");
         int width = (int) (w - 2 * textPaddingLrDp);
 
-        this.primaryTextLayout = new StaticLayout(primaryText, primaryTextPaint, width, Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false);
-        this.secondaryTextLayout = new StaticLayout(secondaryText, secondaryTextPaint, width, Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false);
-
-        setupMetrics();
-        /*float textPositionX = textPaddingLrDp;
-
-        primaryTextY = center.y + targetRadiusDp + textPaddingTopDp;
-        secondaryTextY = primaryTextY + primaryTextLayout.getHeight() + textDistanceDp;
+        TextLayoutCache layoutCache = TextLayoutCache.get();
+        this.primaryTextLayout = layoutCache.obtain(primaryText, primaryTextPaint, width);
+        this.secondaryTextLayout = layoutCache.obtain(secondaryText, secondaryTextPaint, width);
 
-        bgRadius = (float) sqrt(pow(center.x - textPositionX, 2) + pow(center.y - secondaryTextY - secondaryTextLayout.getHeight(), 2));
-        bgRadius += textPaddingLrDp;*/
+        setupMetrics(w, h);
+        invalidateStaticLayer();
+        TraceCompat.endSection();
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        if (showTime != 0) onFirstFrame();
+        countDrawnFrame();
+
+        DiscoveryMetrics metrics = getMetrics();
+        long drawStart = metrics != null ? System.nanoTime() : 0;
+        TraceCompat.beginSection("DiscoveryView.onDraw");
+
+        if (spotlight) drawSpotlight(canvas);
+        else drawCircles(canvas);
+
+        drawExtraHighlights(canvas);
+
+        if (phase == PHASE_PULSE && canDrawPicture(canvas)) {
+            // After the flyIn only the pulse changes, so the text
+            // and the target are replayed from the recorded layer
+            if (!staticLayerValid) recordStaticLayer();
+            canvas.drawPicture(staticLayer);
+        } else {
+            drawStaticLayer(canvas);
+        }
+
+        // A live target is never recorded, so its state changes stay visible
+        if (targetRenderMode == TARGET_RENDER_DIRECT) drawTargetDirect(canvas, target, center);
+
+        for (int i = 0; i < extraTargets.size(); i++) {
+            ExtraTarget extra = extraTargets.get(i);
+            if (extra.renderMode == TARGET_RENDER_DIRECT) drawTargetDirect(canvas, extra.view, extra.center);
+        }
 
+        TraceCompat.endSection();
+        if (metrics != null) metrics.recordDrawTime(System.nanoTime() - drawStart);
+    }
+
+    private void drawCircles(Canvas canvas) {
         colorPaint.setColor(backgroundColor);
-        colorPaint.setAlpha(245);
+        colorPaint.setAlpha(BACKGROUND_ALPHA);
         canvas.drawCircle(center.x, center.y, bgRadius, colorPaint);
 
         colorPaint.setColor(Color.WHITE);
@@ -218,30 +823,259 @@ public class DiscoveryView extends View {
         colorPaint.setAlpha(rippleAlpha);
         canvas.drawCircle(center.x, center.y, targetRadiusDp * 1.1f + rippleWidth, colorPaint);
 
-        if (primaryTextLayout != null) {
-            canvas.save();
-            canvas.translate(textPaddingLrDp, primaryTextY);
-            primaryTextPaint.setColor(primaryTextColor);
-            primaryTextPaint.setAlpha(textAlpha);
-            primaryTextLayout.draw(canvas);
-            canvas.restore();
+        float outer = Math.max(bgRadius, Math.max(getWhiteRadius(), getRippleRadius()));
+        float circles = bgRadius * bgRadius + getWhiteRadius() * getWhiteRadius() + getRippleRadius() * getRippleRadius();
+        countOverdraw(circles, outer);
+    }
+
+    // Draws every pixel of the highlight once. The circles of drawCircles() are split into
+    // rings which do not overlap, each painted in the color the stacked circles blend to
+    private void drawSpotlight(Canvas canvas) {
+        float white = getWhiteRadius();
+        float ripple = Math.max(white, getRippleRadius());
+
+        int background = ColorUtils.setAlphaComponent(backgroundColor, BACKGROUND_ALPHA);
+        int rippleColor = ColorUtils.setAlphaComponent(Color.WHITE, rippleAlpha);
+
+        drawRing(canvas, center, 0, white, Color.WHITE);
+        drawRing(canvas, center, white, Math.min(ripple, bgRadius), ColorUtils.compositeColors(rippleColor, background));
+        drawRing(canvas, center, Math.max(white, bgRadius), ripple, rippleColor); // The ripple outside of the background
+        drawRing(canvas, center, ripple, bgRadius, background);
+
+        float outer = Math.max(bgRadius, ripple);
+        countOverdraw(outer * outer, outer);
+    }
+
+    // The further targets get the same circles as the target, driven by the same clock.
+    // They lie on the background, so the spotlight only splits their own circles into rings
+    private void drawExtraHighlights(Canvas canvas) {
+        if (extraTargets.isEmpty()) return;
+
+        float white = getWhiteRadius();
+        float ripple = getRippleRadius();
+        int rippleColor = ColorUtils.setAlphaComponent(Color.WHITE, rippleAlpha);
+
+        for (int i = 0; i < extraTargets.size(); i++) {
+            PointF extraCenter = extraTargets.get(i).center;
+
+            if (spotlight) {
+                drawRing(canvas, extraCenter, 0, white, Color.WHITE);
+                drawRing(canvas, extraCenter, white, ripple, rippleColor);
+                continue;
+            }
+
+            colorPaint.setColor(Color.WHITE);
+            colorPaint.setAlpha(255);
+            canvas.drawCircle(extraCenter.x, extraCenter.y, white, colorPaint);
+
+            colorPaint.setAlpha(rippleAlpha);
+            canvas.drawCircle(extraCenter.x, extraCenter.y, ripple, colorPaint);
+        }
+    }
+
+    private void drawRing(Canvas canvas, PointF center, float inner, float outer, int color) {
+        if (outer <= inner || Color.alpha(color) == 0) return;
+        ringPaint.setColor(color);
+
+        if (inner == 0) {
+            ringPaint.setStyle(Paint.Style.FILL);
+            canvas.drawCircle(center.x, center.y, outer, ringPaint);
+        } else {
+            ringPaint.setStyle(Paint.Style.STROKE);
+            ringPaint.setStrokeWidth(outer - inner);
+            canvas.drawCircle(center.x, center.y, (inner + outer) / 2, ringPaint);
+        }
+    }
+
+    private float getWhiteRadius() {
+        return Math.max(targetRadiusDp, animTargetRadiusDp);
+    }
+
+    private float getRippleRadius() {
+        return targetRadiusDp * 1.1f + rippleWidth;
+    }
+
+    // Estimates the overdraw from the circle areas, nothing is counted on the canvas. Both areas
+    // are in units of PI, every target is drawn once on top in both modes. The further targets
+    // lie inside the background, so their circles add to the drawn area but not to the covered one
+    private void countOverdraw(float drawnCircles, float outerRadius) {
+        float targetArea = target != null ? target.getWidth() * target.getHeight() / (float) Math.PI : 0;
+
+        // The spotlight draws a disc and a ring which do not overlap
+        float white = getWhiteRadius();
+        float ripple = getRippleRadius();
+        float extraCircles = spotlight ? Math.max(white, ripple) * Math.max(white, ripple) : white * white + ripple * ripple;
+
+        for (int i = 0; i < extraTargets.size(); i++) {
+            View extra = extraTargets.get(i).view;
+            drawnCircles += extraCircles;
+            targetArea += extra.getWidth() * extra.getHeight() / (float) Math.PI;
+        }
+
+        float covered = outerRadius * outerRadius;
+        overdraw = covered == 0 ? 0 : (drawnCircles + targetArea) / covered;
+    }
+
+    /**
+     * Debug estimate of the overdraw of the highlight in the last frame. It is the
+     * drawn area of the circles and the target divided by the area they cover, so
+     * 1 means every pixel is drawn once. The value is computed from the radii and
+     * not counted on the canvas, so it ignores clipping, anti aliased edges and the
+     * parts of the circles outside of the view. The texts are not included
+     * @return The estimated average number of draws per pixel of the highlight
+     */
+    public float getOverdraw() {
+        return overdraw;
+    }
+
+    /**
+     * Composes the background, the target circle and the ripple in one pass without
+     * overdraw. Each ring is painted in the blended color of the stacked circles, so
+     * only the anti aliased edges between the rings differ slightly. The circles of further
+     * targets are still drawn on top of the background (Default false)
+     * @param spotlight True if the highlight should be drawn without overdraw
+     */
+    public void setSpotlightRendering(boolean spotlight) {
+        this.spotlight = spotlight;
+        invalidate();
+    }
+
+    public boolean isSpotlightRendering() {
+        return spotlight;
+    }
+
+    private void drawStaticLayer(Canvas canvas) {
+        if (previousPrimaryLayout != null) {
+            // The first half of a move still shows the previous texts
+            drawText(canvas, previousPrimaryLayout, previousPrimaryY, primaryTextColor);
+            drawText(canvas, previousSecondaryLayout, previousSecondaryY, secondaryTextColor);
+        } else {
+            drawText(canvas, primaryTextLayout, primaryTextY, primaryTextColor);
+            drawText(canvas, secondaryTextLayout, secondaryTextY, secondaryTextColor);
+        }
+
+        drawTargetBitmap(canvas, targetBitmap, center);
+
+        for (int i = 0; i < extraTargets.size(); i++) {
+            ExtraTarget extra = extraTargets.get(i);
+            drawTargetBitmap(canvas, extra.bitmap, extra.center);
+        }
+    }
+
+    private void drawTargetBitmap(Canvas canvas, Bitmap bitmap, PointF center) {
+        if (bitmap == null) return;
+
+        if (silhouette) colorPaint.setColor(silhouetteColor); // ALPHA_8 bitmaps are painted in the paint color
+        else if (colorFilter != null) colorPaint.setColorFilter(colorFilter);
+
+        colorPaint.setAlpha(targetAlpha);
+        canvas.drawBitmap(bitmap, center.x - bitmap.getWidth() / 2, center.y - bitmap.getHeight() / 2, colorPaint);
+        if (!silhouette && colorFilter != null) colorPaint.setColorFilter(null);
+    }
+
+    private void drawTargetDirect(Canvas canvas, View target, PointF center) {
+        if (target == null) return;
+
+        float left = center.x - target.getWidth() / 2;
+        float top = center.y - target.getHeight() / 2;
+        int count = canvas.save();
+
+        if (silhouette || colorFilter != null || targetAlpha < 255) {
+            // Filters only apply to whole drawings, so the target is drawn into a layer of its size
+            targetLayerPaint.setColorFilter(silhouette ? getSilhouetteFilter() : colorFilter);
+            targetLayerPaint.setAlpha(targetAlpha);
+            canvas.saveLayer(left, top, left + target.getWidth(), top + target.getHeight(), targetLayerPaint, Canvas.ALL_SAVE_FLAG);
         }
 
-        if (secondaryTextLayout != null) {
-            canvas.save();
-            canvas.translate(textPaddingLrDp, secondaryTextY);
-            secondaryTextPaint.setColor(secondaryTextColor);
-            secondaryTextPaint.setAlpha(textAlpha);
-            secondaryTextLayout.draw(canvas);
-            canvas.restore();
+        canvas.translate(left, top);
+        target.draw(canvas);
+        canvas.restoreToCount(count);
+    }
+
+    // The source alpha is kept and the color replaced, like an ALPHA_8 bitmap in the paint color
+    private PorterDuffColorFilter getSilhouetteFilter() {
+        if (silhouetteFilter == null || silhouetteFilterColor != silhouetteColor) {
+            silhouetteFilter = new PorterDuffColorFilter(silhouetteColor, PorterDuff.Mode.SRC_IN);
+            silhouetteFilterColor = silhouetteColor;
         }
 
-        if (target != null) {
-            if (colorFilter != null) colorPaint.setColorFilter(colorFilter);
-            colorPaint.setAlpha(targetAlpha);
-            canvas.drawBitmap(targetBitmap, center.x - target.getWidth() / 2, center.y - target.getHeight() / 2, colorPaint);
-            if (colorFilter != null) colorPaint.setColorFilter(null);
+        return silhouetteFilter;
+    }
+
+    private void drawText(Canvas canvas, StaticLayout layout, float y, int color) {
+        if (layout == null || quickRejectText(canvas, y, layout)) return;
+
+        canvas.save();
+        canvas.translate(textPaddingLrDp, y);
+        layout.getPaint().setColor(color); // Cached layouts own their paint
+        layout.getPaint().setAlpha(textAlpha);
+        layout.draw(canvas);
+        canvas.restore();
+    }
+
+    private void recordStaticLayer() {
+        if (staticLayer == null) staticLayer = new Picture();
+
+        Canvas canvas = staticLayer.beginRecording(getWidth(), getHeight());
+        drawStaticLayer(canvas);
+        staticLayer.endRecording();
+
+        staticLayerValid = true;
+    }
+
+    // Hardware accelerated canvases support pictures since Marshmallow
+    private boolean canDrawPicture(Canvas canvas) {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M || !canvas.isHardwareAccelerated();
+    }
+
+    // Must be called whenever the text, the colors or the target change
+    private void invalidateStaticLayer() {
+        staticLayerValid = false;
+    }
+
+    // Skips the text if it is outside of the invalidated area
+    private boolean quickRejectText(Canvas canvas, float y, Layout layout) {
+        return canvas.quickReject(textPaddingLrDp, y, textPaddingLrDp + layout.getWidth(), y + layout.getHeight(), Canvas.EdgeType.AA);
+    }
+
+    @Override
+    protected void onWindowVisibilityChanged(int visibility) {
+        super.onWindowVisibilityChanged(visibility);
+
+        if (visibility != VISIBLE) pausePulse();
+        else if (!pulsePolicy.isPauseWhenUnfocused() || hasWindowFocus()) resumePulse();
+    }
+
+    @Override
+    public void onWindowFocusChanged(boolean hasWindowFocus) {
+        super.onWindowFocusChanged(hasWindowFocus);
+        if (!pulsePolicy.isPauseWhenUnfocused()) return;
+
+        if (hasWindowFocus) resumePulse();
+        else pausePulse();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        stopClock();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    public boolean onKeyDown(int keyCode, KeyEvent event) {
+        if (hostMode == HOST_DECOR_VIEW && keyCode == KeyEvent.KEYCODE_BACK) return true;
+        return super.onKeyDown(keyCode, event);
+    }
+
+    @Override
+    public boolean onKeyUp(int keyCode, KeyEvent event) {
+        // Without a dialog the back key has to be handled by the view itself
+        if (hostMode == HOST_DECOR_VIEW && keyCode == KeyEvent.KEYCODE_BACK) {
+            dismiss();
+            return true;
         }
+
+        return super.onKeyUp(keyCode, event);
     }
 
     @Override
@@ -255,6 +1089,7 @@ public class DiscoveryView extends View {
      */
     public void setPrimaryText(String primaryText) {
         this.primaryText = primaryText;
+        invalidateStaticLayer();
     }
 
     /**
@@ -271,6 +1106,7 @@ public class DiscoveryView extends View {
      */
     public void setPrimaryTextSize(float primaryTextSize) {
         primaryTextPaint.setTextSize(primaryTextSize);
+        invalidateStaticLayer();
     }
 
     /**
@@ -279,6 +1115,7 @@ public class DiscoveryView extends View {
      */
     public void setPrimaryTextTypeface(Typeface primaryTextTypeface) {
         primaryTextPaint.setTypeface(primaryTextTypeface);
+        invalidateStaticLayer();
     }
 
     /**
@@ -297,6 +1134,7 @@ public class DiscoveryView extends View {
      */
     public void setPrimaryTextColor(int primaryTextColor) {
         this.primaryTextColor = primaryTextColor;
+        invalidateStaticLayer();
     }
 
     /**
@@ -305,6 +1143,7 @@ public class DiscoveryView extends View {
      */
     public void setSecondaryText(String secondaryText) {
         this.secondaryText = secondaryText;
+        invalidateStaticLayer();
     }
 
     /**
@@ -321,6 +1160,7 @@ public class DiscoveryView extends View {
      */
     public void setSecondaryTextSize(float secondaryTextSize) {
         secondaryTextPaint.setTextSize(secondaryTextSize);
+        invalidateStaticLayer();
     }
 
     /**
@@ -329,6 +1169,7 @@ public class DiscoveryView extends View {
      */
     public void setSecondaryTextTypeface(Typeface secondaryTextTypeface) {
         secondaryTextPaint.setTypeface(secondaryTextTypeface);
+        invalidateStaticLayer();
     }
 
     /**
@@ -347,6 +1188,7 @@ public class DiscoveryView extends View {
      */
     public void setSecondaryTextColor(int secondaryTextColor) {
         this.secondaryTextColor = secondaryTextColor;
+        invalidateStaticLayer();
     }
 
     public void setBackgroundColorResource(@ColorRes int colorRes)
@@ -366,10 +1208,38 @@ public class DiscoveryView extends View {
         {
             colorFilter = new LightingColorFilter(0, color);
         }
+
+        if (silhouette) silhouetteColor = color;
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Paints the target as a single colored silhouette. The target is captured
+     * as ALPHA_8 mask which needs a quarter of the memory of a full snapshot and
+     * is drawn without a ColorFilter. A set ColorFilter is ignored in this mode
+     * @param color The color of the silhouette
+     */
+    public void setSilhouetteColor(int color) {
+        boolean resnapshot = !silhouette && targetBitmap != null;
+
+        silhouette = true;
+        silhouetteColor = color;
+        invalidateStaticLayer();
+
+        if (resnapshot) snapshotTarget();
+    }
+
+    /**
+     * Return if the target is painted as a single colored silhouette
+     * @return True if {@link #setSilhouetteColor(int)} was called, otherwise false
+     */
+    public boolean isSilhouette() {
+        return silhouette;
     }
 
     public void setColorFilter(ColorFilter colorFilter) {
         this.colorFilter = colorFilter;
+        invalidateStaticLayer();
     }
 
     /**
@@ -381,276 +1251,1062 @@ public class DiscoveryView extends View {
     }
 
     /**
-     * Return if a colorFilter is applied to the view target
-     * @return True if a colorFilter is set, otherwise flase
+     * Return if a colorFilter is applied to the view target
+     * @return True if a colorFilter is set, otherwise flase
+     */
+    public boolean hasColorFilter() {
+        return (colorFilter != null);
+    }
+
+    /**
+     * Displays the DiscoveryView on top of all other views on the screen
+     * @param animated If true the view will flyIn, if false it appears immediately
+     */
+    public void show(final boolean animated) {
+        if (discoveryId != null && !showOnce(animated)) return;
+
+        showTime = System.nanoTime();
+        watchLifecycle();
+        if (targetBitmap == null && targetRenderMode == TARGET_RENDER_BITMAP && target != null) snapshotTarget();
+        if (trackTarget) startTracking();
+
+        if (hostMode == HOST_DECOR_VIEW) {
+            ViewGroup decorView = getDecorView();
+            if (getParent() == null) decorView.addView(this, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
+            setFocusableInTouchMode(true); // Receive the back key, see onKeyUp
+            requestFocus();
+
+            // The view is laid out with the next traversal but
+            // the flyIn needs the metrics of the decor view now
+            setupLayouts(decorView.getWidth(), decorView.getHeight());
+            onShown(animated);
+            return;
+        }
+
+        // A reused view keeps its size, so onSizeChanged is not
+        // called again and the layouts are updated right here
+        if (getWidth() > 0) setupLayouts(getWidth(), getHeight());
+
+        if (dialog == null) {
+            dialog = new Dialog(getContext(), android.R.style.Theme_Translucent_NoTitleBar);
+            dialog.setContentView(this);
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            dialog.getWindow().addFlags(WindowManager.LayoutParams.FLAG_DRAWS_SYSTEM_BAR_BACKGROUNDS);
+            dialog.getWindow().setStatusBarColor(getThemeColor(R.attr.colorPrimaryDark));
+        }
+
+        dialog.setOnShowListener(new DialogInterface.OnShowListener() {
+            @Override
+            public void onShow(DialogInterface dialogInterface) {
+                onShown(animated);
+            }
+        });
+
+        dialog.show();
+    }
+
+    // Returns true if the discovery was not seen yet and marks it as seen. A seen discovery
+    // is reported as dismissed right away, so sequences and listeners carry on as usual
+    private boolean showOnce(final boolean animated) {
+        final DiscoveryRegistry registry = DiscoveryRegistry.get(getContext());
+
+        if (!registry.isLoaded()) {
+            final String id = discoveryId;
+
+            registry.runWhenLoaded(new Runnable() {
+                @Override
+                public void run() {
+                    // The view may have been dismissed or reused meanwhile
+                    if (id.equals(discoveryId) && !isShowing()) show(animated);
+                }
+            });
+            return false;
+        }
+
+        if (registry.isSeen(discoveryId)) {
+            if (listener != null) listener.onDiscoveryViewDismissed(this);
+            return false;
+        }
+
+        registry.markSeen(discoveryId);
+        return true;
+    }
+
+    /**
+     * Shows the view only once per installation. Every show() checks the {@link DiscoveryRegistry}
+     * without touching the disk, a seen discovery is reported as dismissed immediately.
+     * If the registry is not loaded yet, the view is shown as soon as it is (Default null)
+     * @param discoveryId The unique id of the discovery or null to show it every time
+     */
+    public void setDiscoveryId(String discoveryId) {
+        this.discoveryId = discoveryId;
+        if (discoveryId != null) DiscoveryRegistry.get(getContext()); // Starts to load the registry
+    }
+
+    public String getDiscoveryId() {
+        return discoveryId;
+    }
+
+    private void onShown(boolean animated) {
+        if (animated) {
+            flyIn();
+            return;
+        }
+
+        targetAlpha = 255;
+        animTargetRadiusDp = targetRadiusDp;
+        invalidate();
+        startPulse();
+    }
+
+    /**
+     * Return if the view is currently displayed
+     * @return True if the view is shown in its host, otherwise false
+     */
+    public boolean isShowing() {
+        if (hostMode == HOST_DECOR_VIEW) return getParent() != null;
+        return dialog != null && dialog.isShowing();
+    }
+
+    private void removeFromHost() {
+        stopTracking();
+
+        if (hostMode == HOST_DECOR_VIEW) {
+            if (getParent() instanceof ViewGroup) ((ViewGroup) getParent()).removeView(this);
+        } else if (dialog != null) {
+            dialog.dismiss();
+        }
+    }
+
+    private ViewGroup getDecorView() {
+        Window window = ((Activity) getContext()).getWindow();
+        return (ViewGroup) window.getDecorView();
+    }
+
+    /**
+     * Displays the DiscoveryView with flyIn animation
+     * on top of all other views on the screen
+     */
+    public void show() {
+        show(true);
+    }
+
+    /**
+     * Hides the DiscoveryView with flyOut animation
+     */
+    public void dismiss() {
+        this.dismiss(true);
+    }
+
+    /**
+     * Displays the DiscoveryView on top of all other views on the screen
+     * @param animated If true the view will flyOut, if false it disappears immediately.
+     * Afterwards the view keeps neither the target nor the listener
+     */
+    public void dismiss(boolean animated) {
+        if (animated) {
+            flyOut();
+            return;
+        }
+
+        stopClock();
+        removeFromHost();
+        releaseTargetBitmap();
+        releaseTargets();
+        reportDrawTimes();
+    }
+
+    /**
+     * Sets the animation which is played when the view is shown. The resource is parsed
+     * once per process. It may animate the properties backgroundRadius, targetRadius,
+     * targetAlpha and textAlpha, where the values of the radii are set by the view.
+     * Sets are played as if their ordering is 'together', use startOffset instead
+     * @param animatorRes The animator resource (Default R.animator.fly_in)
+     */
+    public void setFlyInAnimator(@AnimatorRes int animatorRes) {
+        if (flyInRes == animatorRes) return;
+
+        flyInRes = animatorRes;
+        flyInTracks = null;
+    }
+
+    /**
+     * Sets the animation which is played when the view is dismissed, see
+     * {@link #setFlyInAnimator(int)} for the supported properties
+     * @param animatorRes The animator resource (Default R.animator.fly_out)
+     */
+    public void setFlyOutAnimator(@AnimatorRes int animatorRes) {
+        if (flyOutRes == animatorRes) return;
+
+        flyOutRes = animatorRes;
+        flyOutTracks = null;
+    }
+
+    /**
+     * Sets the animation which is repeated while the view is shown. It may animate
+     * the properties pulseRadius, rippleWidth and rippleAlpha. Sets are played as
+     * if their ordering is 'together', use startOffset instead
+     * @param animatorRes The animator resource (Default R.animator.pulse)
+     */
+    public void setPulseAnimator(@AnimatorRes int animatorRes) {
+        if (pulseRes == animatorRes) return;
+
+        pulseRes = animatorRes;
+        pulseTracks = null;
+    }
+
+    /**
+     * Pauses the pulse effect without losing its current state. Does nothing if the pulse
+     * is not running (e.g. the view is dismissed or only shows the static highlight)
+     */
+    public void pausePulse() {
+        if (phase != PHASE_PULSE || pulseStatic || pulsePaused) return;
+        pulsePaused = true;
+        clearFrameWindow();
+
+        if (pulseLimited) {
+            removeCallbacks(pulseFrame);
+            pulsePauseTime = SystemClock.uptimeMillis();
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) clock.pause();
+        else clock.cancel();
+    }
+
+    /**
+     * Resumes the pulse effect after it was paused with {@link #pausePulse()}
+     */
+    public void resumePulse() {
+        if (phase != PHASE_PULSE || pulseStatic || !pulsePaused) return;
+        pulsePaused = false;
+
+        if (pulseLimited) {
+            pulseStart += SystemClock.uptimeMillis() - pulsePauseTime; // Continues where it was paused
+            post(pulseFrame);
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT && clock.isPaused()) clock.resume();
+        else if (!clock.isStarted()) clock.start();
+    }
+
+    // At this point the center, the primary text and the secondary text are set.
+    // The placement only depends on the view size, so no screen position is read
+    private void setupMetrics(int w, int h) {
+        TraceCompat.beginSection("DiscoveryView.setupMetrics");
+
+        int extraCount = extraTargets.size();
+        if (extraCenters.length < 2 * extraCount) extraCenters = new float[2 * extraCount];
+
+        for (int i = 0; i < extraCount; i++) {
+            PointF extraCenter = extraTargets.get(i).center;
+            extraCenters[2 * i] = extraCenter.x;
+            extraCenters[2 * i + 1] = extraCenter.y;
+        }
+
+        geometry.solve(center.x, center.y, targetRadiusDp, h,
+                getTextWidth(primaryTextLayout), primaryTextLayout.getHeight(),
+                getTextWidth(secondaryTextLayout), secondaryTextLayout.getHeight(),
+                extraCenters, extraCount);
+
+        primaryTextY = geometry.getPrimaryTextY();
+        secondaryTextY = geometry.getSecondaryTextY();
+        bgRadius = geometry.getRadius();
+
+        TraceCompat.endSection();
+    }
+
+    // Returns the width of the widest line, which is less than the layout width for short texts
+    private static float getTextWidth(StaticLayout layout) {
+        float width = 0;
+
+        for (int i = 0; i < layout.getLineCount(); i++) {
+            width = Math.max(width, layout.getLineWidth(i));
+        }
+
+        return width;
+    }
+
+    private void flyIn() {
+        if (flyInTracks == null) flyInTracks = loadTracks(flyInRes);
+
+        for (ObjectAnimator track : flyInTracks) {
+            if (BACKGROUND_RADIUS.getName().equals(track.getPropertyName())) track.setFloatValues(0, bgRadius);
+            else if (TARGET_RADIUS.getName().equals(track.getPropertyName())) track.setFloatValues(0, targetRadiusDp);
+        }
+
+        startPhase(PHASE_FLY_IN, flyInTracks, false);
+    }
+
+    private void flyOut() {
+        if (flyOutTracks == null) flyOutTracks = loadTracks(flyOutRes);
+
+        for (ObjectAnimator track : flyOutTracks) {
+            if (BACKGROUND_RADIUS.getName().equals(track.getPropertyName())) track.setFloatValues(bgRadius, 0);
+            else if (TARGET_RADIUS.getName().equals(track.getPropertyName())) track.setFloatValues(targetRadiusDp, 0);
+        }
+
+        startPhase(PHASE_FLY_OUT, flyOutTracks, false);
+    }
+
+    private void startPulse() {
+        if (pulsePolicy.isStatic(getContext())) {
+            // Animations are off or the device saves power, so the
+            // highlight is shown in its resting state without a clock
+            clock.cancel();
+            phase = PHASE_PULSE;
+            pulseStatic = true;
+            clearFrameWindow();
+            animTargetRadiusDp = targetRadiusDp;
+            rippleWidth = 0;
+            rippleAlpha = 0;
+            invalidate();
+            return;
+        }
+
+        if (pulseTracks == null) pulseTracks = loadTracks(pulseRes);
+        startPhase(PHASE_PULSE, pulseTracks, true);
+
+        if (pulsePolicy.isPauseWhenUnfocused() && !hasWindowFocus()) pausePulse();
+    }
+
+    private void stopClock() {
+        phase = PHASE_NONE;
+        pulsePaused = false;
+        pulseStatic = false;
+        pulseLimited = false;
+        clock.cancel();
+        removeCallbacks(phaseEnd);
+        removeCallbacks(pulseFrame);
+    }
+
+    private void startPhase(int phase, ArrayList<ObjectAnimator> tracks, boolean repeat) {
+        clock.cancel();
+        removeCallbacks(pulseFrame);
+
+        long duration = 0;
+        for (ObjectAnimator track : tracks) {
+            duration = Math.max(duration, track.getStartDelay() + track.getDuration());
+        }
+
+        this.phase = phase;
+        this.tracks = tracks;
+        this.phaseDuration = duration;
+        this.trackTimeScale = getTrackTimeScale();
+        this.pulsePaused = false;
+        this.pulseStatic = false;
+        this.pulseLimited = phase == PHASE_PULSE && pulsePolicy.getMinFrameInterval() > 0;
+
+        if (discoveryMetrics != null) discoveryMetrics.startAnimation();
+
+        if (pulseLimited) {
+            // The clock would wake up on every display frame, even if the frame is not
+            // drawn. A limited pulse posts its frames with the interval of the policy
+            pulseStart = SystemClock.uptimeMillis();
+            post(pulseFrame);
+            return;
+        }
+
+        clock.setDuration(duration);
+        clock.setRepeatCount(repeat ? ValueAnimator.INFINITE : 0);
+        clock.start();
+    }
+
+    // Called once per frame by the clock
+    private void onFrame() {
+        drawFrame((long) (clock.getAnimatedFraction() * phaseDuration));
+    }
+
+    // Draws a frame of a pulse with a frame rate limit and posts the next one
+    private final Runnable pulseFrame = new Runnable() {
+        @Override
+        public void run() {
+            if (!pulseLimited || pulsePaused) return;
+
+            long elapsed = SystemClock.uptimeMillis() - pulseStart;
+            drawFrame(phaseDuration == 0 ? 0 : elapsed % phaseDuration);
+            postDelayed(this, pulsePolicy.getMinFrameInterval());
+        }
+    };
+
+    // Every track is moved to the same point of the timeline and the view is invalidated only once
+    private void drawFrame(long time) {
+
+        for (int i = 0; i < tracks.size(); i++) {
+            ObjectAnimator track = tracks.get(i);
+            long trackTime = time - track.getStartDelay();
+
+            if (trackTime < 0) break; // Tracks are sorted by their start
+            track.setCurrentPlayTime((long) (Math.min(trackTime, track.getDuration()) * trackTimeScale));
+        }
+
+        DiscoveryMetrics metrics = getMetrics();
+        if (metrics != null) metrics.recordFrame(System.nanoTime());
+
+        if (phase == PHASE_PULSE) invalidatePulse();
+        else invalidateAll();
+    }
+
+    // Before Nougat a seek is relative to the duration multiplied by the animator duration
+    // scale, so an unscaled seek would stop the tracks before they reach their end values
+    private float getTrackTimeScale() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) return 1;
+        return PulsePolicy.getAnimatorDurationScale(getContext());
+    }
+
+    private void invalidateAll() {
+        dirtyRadius = 0;
+        countInvalidatedPixels((long) getWidth() * getHeight());
+        invalidate();
+    }
+
+    // While pulsing only the ring around the center changes. The union of
+    // the last and the current ring is invalidated so a shrinking ring is
+    // cleared as well. The extra pixel covers the anti aliased edge
+    private void invalidatePulse() {
+        float radius = Math.max(targetRadiusDp * 1.1f + rippleWidth, Math.max(targetRadiusDp, animTargetRadiusDp));
+        float dirty = Math.max(radius, dirtyRadius) + 1;
+        dirtyRadius = radius;
+
+        dirtyRect.set((int) (center.x - dirty), (int) (center.y - dirty), (int) Math.ceil(center.x + dirty), (int) Math.ceil(center.y + dirty));
+
+        for (int i = 0; i < extraTargets.size(); i++) {
+            PointF extraCenter = extraTargets.get(i).center;
+            dirtyRect.union((int) (extraCenter.x - dirty), (int) (extraCenter.y - dirty), (int) Math.ceil(extraCenter.x + dirty), (int) Math.ceil(extraCenter.y + dirty));
+        }
+
+        if (!dirtyRect.intersect(0, 0, getWidth(), getHeight())) return;
+
+        countInvalidatedPixels((long) dirtyRect.width() * dirtyRect.height());
+        invalidate(dirtyRect);
+    }
+
+    private void countInvalidatedPixels(long pixels) {
+        long now = SystemClock.uptimeMillis();
+
+        if (now - invalidationWindowStart >= 1000) {
+            invalidatedPixelsPerSecond = invalidatedPixels;
+            invalidatedPixels = 0;
+            invalidationWindowStart = now;
+        }
+
+        invalidatedPixels += pixels;
+    }
+
+    /**
+     * Debug counter of the pixels which were invalidated by the animations
+     * during the last full second. While the view pulses only the area of
+     * the ripple is invalidated, so this value drops after the flyIn
+     * @return The invalidated pixels of the last second
+     */
+    public long getInvalidatedPixelsPerSecond() {
+        return invalidatedPixelsPerSecond;
+    }
+
+    private void countDrawnFrame() {
+        long now = SystemClock.uptimeMillis();
+
+        if (now - frameWindowStart >= 60000) {
+            framesPerMinute = drawnFrames;
+            drawnFrames = 0;
+            frameWindowStart = now;
+        }
+
+        drawnFrames++;
+    }
+
+    // A paused or static pulse draws no frames, so the count starts over when it runs again
+    private void clearFrameWindow() {
+        drawnFrames = 0;
+        framesPerMinute = 0;
+        frameWindowStart = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Debug counter of the frames drawn during the last full minute. It shows
+     * the effect of the {@link PulsePolicy} on devices which show the view
+     * for a long time, e.g. about 1800 for a pulse limited to 30 fps. While the
+     * pulse is paused or static the counter is 0
+     * @return The drawn frames of the last minute
+     */
+    public int getFramesPerMinute() {
+        if (pulsePaused || pulseStatic) return 0;
+        return framesPerMinute;
+    }
+
+    /**
+     * Sets when and how often the view pulses. The policy is applied
+     * whenever the pulse starts (Default a new {@link PulsePolicy})
+     * @param pulsePolicy The policy of the pulse
+     */
+    public void setPulsePolicy(@NonNull PulsePolicy pulsePolicy) {
+        this.pulsePolicy = pulsePolicy;
+    }
+
+    public PulsePolicy getPulsePolicy() {
+        return pulsePolicy;
+    }
+
+    // Clones the cached animator resource and flattens it into a list of tracks.
+    // The start delay of each track is replaced by its absolute offset in
+    // the timeline, sets are treated as if their ordering is 'together'
+    private ArrayList<ObjectAnimator> loadTracks(int animatorRes) {
+        ArrayList<ObjectAnimator> tracks = new ArrayList<>();
+        addTracks(AnimatorTemplates.obtain(getContext(), animatorRes), 0, tracks);
+        return tracks;
+    }
+
+    private void addTracks(Animator animator, long offset, ArrayList<ObjectAnimator> tracks) {
+        offset += animator.getStartDelay();
+
+        if (animator instanceof AnimatorSet) {
+            for (Animator child : ((AnimatorSet) animator).getChildAnimations()) {
+                addTracks(child, offset, tracks);
+            }
+            return;
+        }
+
+        ObjectAnimator track = (ObjectAnimator) animator;
+        track.setStartDelay(offset);
+        track.setTarget(this);
+
+        // Known names are bound to the typed properties, so the
+        // setters are neither looked up nor called by reflection
+        Property property = getProperty(track.getPropertyName());
+        if (property != null) track.setProperty(property);
+
+        // Tracks which start later are applied later and so win
+        // if two tracks animate the same property at the same time
+        int index = tracks.size();
+        while (index > 0 && tracks.get(index - 1).getStartDelay() > offset) index--;
+        tracks.add(index, track);
+    }
+
+    // Phase changes are posted because the clock can not
+    // be restarted safely from within its own end callback
+    private final Runnable phaseEnd = new Runnable() {
+        @Override
+        public void run() {
+            if (phase != endedPhase) return;
+
+            DiscoveryMetrics metrics = getMetrics();
+            if (metrics != null && (phase == PHASE_FLY_IN || phase == PHASE_FLY_OUT)) {
+                metrics.reportAnimation(DiscoveryView.this, phase == PHASE_FLY_IN);
+            }
+
+            if (phase == PHASE_FLY_IN || phase == PHASE_MOVE) {
+                startPulse();
+            } else if (phase == PHASE_FLY_OUT) {
+                reportDrawTimes();
+                phase = PHASE_NONE;
+                removeFromHost();
+                releaseTargetBitmap();
+
+                OnDiscoveryViewClickListener dismissedListener = listener;
+                releaseTargets();
+                if (dismissedListener != null) dismissedListener.onDiscoveryViewDismissed(DiscoveryView.this);
+            }
+        }
+    };
+
+    private int getThemeColor(int attr) {
+        return getThemeColor(getContext(), attr);
+    }
+
+    // The colors are cached per theme, so the styled
+    // attributes are only read once per process
+    private static int getThemeColor(Context context, int attr) {
+        Resources.Theme theme = context.getTheme();
+
+        synchronized (themeColors) {
+            SparseIntArray colors = themeColors.get(theme);
+            if (colors != null && colors.indexOfKey(attr) >= 0) return colors.get(attr);
+        }
+
+        TypedValue typedValue = new TypedValue();
+
+        TypedArray a = context.obtainStyledAttributes(typedValue.data, new int[]{attr});
+        int color = a.getColor(0, 0);
+
+        a.recycle();
+
+        synchronized (themeColors) {
+            SparseIntArray colors = themeColors.get(theme);
+            if (colors == null) themeColors.put(theme, colors = new SparseIntArray());
+            colors.put(attr, color);
+        }
+
+        return color;
+    }
+
+    /**
+     * Pays the one time costs of the first show() in the process: the theme colors
+     * are read, the animations are parsed and the text classes are loaded. Should be
+     * called on the main thread with the activity which shows the discoveries later
+     * @param context The activity whose theme is used by the DiscoveryViews
      */
-    public boolean hasColorFilter() {
-        return (colorFilter != null);
+    public static void prewarm(Context context) {
+        getThemeColor(context, R.attr.colorPrimary);
+        getThemeColor(context, R.attr.colorPrimaryDark);
+
+        AnimatorTemplates.load(context, R.animator.fly_in);
+        AnimatorTemplates.load(context, R.animator.fly_out);
+        AnimatorTemplates.load(context, R.animator.pulse);
+        AnimatorTemplates.load(context, R.animator.move);
+
+        TextPaint paint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+        paint.setTypeface(Typeface.DEFAULT);
+        new StaticLayout("DiscoveryView", paint, 100, Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false);
+
+        BitmapPool.get();
+        TextLayoutCache.get();
+        DiscoveryRegistry.get(context);
     }
 
     /**
-     * Displays the DiscoveryView on top of all other views on the screen
-     * @param animated If true the view will flyIn, if false it appears immediately
+     * Calls {@link #prewarm(Context)} as soon as the main thread is idle
+     * @param context The activity whose theme is used by the DiscoveryViews
      */
-    public void show(final boolean animated) {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            dialog.getWindow().addFlags(WindowManager.LayoutParams.FLAG_DRAWS_SYSTEM_BAR_BACKGROUNDS);
-            dialog.getWindow().setStatusBarColor(getThemeColor(R.attr.colorPrimaryDark));
-        }
-
-        dialog.setOnShowListener(new DialogInterface.OnShowListener() {
+    public static void prewarmWhenIdle(final Context context) {
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
             @Override
-            public void onShow(DialogInterface dialogInterface) {
-                if (animated) {
-                    flyIn();
-                    return;
-                }
-
-                targetAlpha = 255;
-                animTargetRadiusDp = targetRadiusDp;
-                DiscoveryView.this.invalidate();
-                startPulse();
+            public boolean queueIdle() {
+                prewarm(context);
+                return false;
             }
         });
-
-        dialog.show();
-    }
-
-    /**
-     * Displays the DiscoveryView with flyIn animation
-     * on top of all other views on the screen
-     */
-    public void show() {
-        show(true);
     }
 
     /**
-     * Hides the DiscoveryView with flyOut animation
+     * Returns the time from show() to the first drawn frame of the first
+     * DiscoveryView in the process, which includes all one time costs
+     * @return The time in nanoseconds or -1 if no view was shown yet
      */
-    public void dismiss() {
-        this.dismiss(true);
+    public static long getColdTimeToFirstFrame() {
+        return coldTimeToFirstFrame;
     }
 
     /**
-     * Displays the DiscoveryView on top of all other views on the screen
-     * @param animated If true the view will flyOut, if false it disappears immediately
+     * Returns the time from show() to the first drawn frame of the
+     * last DiscoveryView, if it was not the first one of the process
+     * @return The time in nanoseconds or -1 if only one view was shown yet
      */
-    public void dismiss(boolean animated) {
-        if (!animated) dialog.dismiss();
-        else flyOut();
+    public static long getWarmTimeToFirstFrame() {
+        return warmTimeToFirstFrame;
     }
 
-    // At this point the target, the primary text
-    // and the secondary text are set and readable
-    private void setupMetrics() {
-        int pos[] = new int[2];
-        target.getLocationOnScreen(pos);
-
-        Resources resources = getContext().getResources();
-        DisplayMetrics metrics = resources.getDisplayMetrics();
-
-        if (metrics.heightPixels / 2 < pos[1])
-        {   // Target is on the lower half of the screen
+    private void onFirstFrame() {
+        long now = System.nanoTime();
+        long time = now - showTime;
 
-            if (metrics.widthPixels / 2 < pos[0])
-            {   // Target is on the lower right side of the screen
-                secondaryTextY = center.y - targetRadiusDp - textPaddingTopDp - secondaryTextLayout.getHeight(); //primaryTextY + primaryTextLayout.getHeight() + textDistanceDp;
-                primaryTextY = secondaryTextY - textDistanceDp - primaryTextLayout.getHeight();
+        if (coldTimeToFirstFrame == -1) coldTimeToFirstFrame = time;
+        else warmTimeToFirstFrame = time;
 
-                bgRadius = (float) sqrt(pow(center.x - textPaddingLrDp, 2) + pow(center.y - primaryTextY - primaryTextLayout.getHeight(), 2));
-            }
-            else
-            {   // Target is on the lower left side of the screen
-                secondaryTextY = center.y - targetRadiusDp - textPaddingTopDp - secondaryTextLayout.getHeight(); //primaryTextY + primaryTextLayout.getHeight() + textDistanceDp;
-                primaryTextY = secondaryTextY - textDistanceDp - primaryTextLayout.getHeight();
+        DiscoveryMetricsListener listener = DiscoveryMetrics.getListener();
+        if (listener != null) listener.onFirstFrame(this, now - (buildTime != 0 ? buildTime : showTime));
 
-                bgRadius = (float) sqrt(pow(center.x - (textPaddingLrDp + primaryTextLayout.getWidth()), 2) + pow(center.y - primaryTextY - primaryTextLayout.getHeight(), 2));
-            }
-        }
-        else
-        {   // Target is on the upper half of the screen
+        showTime = 0;
+        buildTime = 0;
+    }
 
-            if (metrics.widthPixels / 2 < pos[0])
-            {   // Target is on the upper right half of the screen
-                primaryTextY = center.y + targetRadiusDp + textPaddingTopDp;
-                secondaryTextY = primaryTextY + primaryTextLayout.getHeight() + textDistanceDp;
+    /**
+     * Sets the listener which receives the metrics of all DiscoveryViews in the process.
+     * Metrics are only collected while a listener is set (Default null)
+     * @param listener The listener or null to stop the collection
+     */
+    public static void setMetricsListener(DiscoveryMetricsListener listener) {
+        DiscoveryMetrics.setListener(listener);
+    }
 
-                bgRadius = (float) sqrt(pow(center.x - textPaddingLrDp, 2) + pow(center.y - secondaryTextY - secondaryTextLayout.getHeight(), 2));
-            }
-            else
-            {   // Target is on the upper left side of the screen
-                primaryTextY = center.y + targetRadiusDp + textPaddingTopDp;
-                secondaryTextY = primaryTextY + primaryTextLayout.getHeight() + textDistanceDp;
+    // Returns null while no metrics listener is set
+    private DiscoveryMetrics getMetrics() {
+        if (DiscoveryMetrics.getListener() == null) return null;
 
-                bgRadius = (float) sqrt(pow(center.x - (textPaddingLrDp + primaryTextLayout.getWidth()), 2) + pow(center.y - secondaryTextY - secondaryTextLayout.getHeight(), 2));
-            }
+        if (discoveryMetrics == null) {
+            WindowManager windowManager = (WindowManager) getContext().getSystemService(Context.WINDOW_SERVICE);
+            discoveryMetrics = new DiscoveryMetrics(windowManager.getDefaultDisplay().getRefreshRate());
         }
 
-        bgRadius += textPaddingLrDp;
+        return discoveryMetrics;
     }
 
-    private void flyIn() {
-        AnimatorSet anim = (AnimatorSet) AnimatorInflater.loadAnimator(getContext(), R.animator.fly_in);
-        ArrayList<Animator> animators = anim.getChildAnimations(); // Get all Animator to set them up
-
-        ObjectAnimator bgAnimator = (ObjectAnimator) animators.get(0);
-        ObjectAnimator targetAnimator = (ObjectAnimator) animators.get(1);
-
-        bgAnimator.setFloatValues(0, bgRadius);
-        targetAnimator.setFloatValues(0, targetRadiusDp);
-
-        anim.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animator) {
+    private void reportDrawTimes() {
+        DiscoveryMetrics metrics = getMetrics();
+        if (metrics != null) metrics.reportDrawTimes(this);
+    }
 
-            }
+    ////////////////////////////////////////////////////////////////////////////////////////
+    ///                                                                                  ///
+    ///    Following properties are used by the animations instead of reflection         ///
+    ///    The frame clock invalidates the view once per frame, see onFrame()            ///
+    ///                                                                                  ///
+    ////////////////////////////////////////////////////////////////////////////////////////
 
-            @Override
-            public void onAnimationEnd(Animator animator) {
-                startPulse();
-            }
+    /** The progress of a move between two targets (0 - 1), animated by the propertyName "moveProgress" */
+    public static final Property<DiscoveryView, Float> MOVE_PROGRESS = new Property<DiscoveryView, Float>(Float.class, "moveProgress") {
+        @Override
+        public Float get(DiscoveryView view) {
+            return view.moveProgress;
+        }
 
-            @Override
-            public void onAnimationCancel(Animator animator) {
+        @Override
+        public void set(DiscoveryView view, Float value) {
+            view.setMoveProgress(value);
+        }
+    };
 
-            }
+    /** The radius of the pulsing target circle, animated by the propertyName "pulseRadius" */
+    public static final Property<DiscoveryView, Float> PULSE_RADIUS = new Property<DiscoveryView, Float>(Float.class, "pulseRadius") {
+        @Override
+        public Float get(DiscoveryView view) {
+            return view.animTargetRadiusDp;
+        }
 
-            @Override
-            public void onAnimationRepeat(Animator animator) {
+        @Override
+        public void set(DiscoveryView view, Float value) {
+            view.setPulseRadius(value);
+        }
+    };
 
-            }
-        });
+    /** The radius of the background circle, animated by the propertyName "backgroundRadius" */
+    public static final Property<DiscoveryView, Float> BACKGROUND_RADIUS = new Property<DiscoveryView, Float>(Float.class, "backgroundRadius") {
+        @Override
+        public Float get(DiscoveryView view) {
+            return view.bgRadius;
+        }
 
-        anim.setTarget(this);
-        anim.start();
-    }
+        @Override
+        public void set(DiscoveryView view, Float value) {
+            view.setBackgroundRadius(value);
+        }
+    };
 
-    private void flyOut() {
-        AnimatorSet anim = (AnimatorSet) AnimatorInflater.loadAnimator(getContext(), R.animator.fly_out);
-        ArrayList<Animator> animators = anim.getChildAnimations(); // Get all Animator to set them up
+    /** The radius of the target circle, animated by the propertyName "targetRadius" */
+    public static final Property<DiscoveryView, Float> TARGET_RADIUS = new Property<DiscoveryView, Float>(Float.class, "targetRadius") {
+        @Override
+        public Float get(DiscoveryView view) {
+            return view.targetRadiusDp;
+        }
 
-        ObjectAnimator bgAnimator = (ObjectAnimator) animators.get(0);
-        ObjectAnimator targetAnimator = (ObjectAnimator) animators.get(1);
+        @Override
+        public void set(DiscoveryView view, Float value) {
+            view.setTargetRadius(value);
+        }
+    };
 
-        bgAnimator.setFloatValues(bgRadius, 0);
-        targetAnimator.setFloatValues(targetRadiusDp, 0);
+    /** The alpha of the target (0 - 255), animated by the propertyName "targetAlpha" */
+    public static final Property<DiscoveryView, Integer> TARGET_ALPHA = new Property<DiscoveryView, Integer>(Integer.class, "targetAlpha") {
+        @Override
+        public Integer get(DiscoveryView view) {
+            return view.targetAlpha;
+        }
 
-        anim.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animator) {
+        @Override
+        public void set(DiscoveryView view, Integer value) {
+            view.setTargetAlpha(value);
+        }
+    };
 
-            }
+    /** The alpha of the texts (0 - 255), animated by the propertyName "textAlpha" */
+    public static final Property<DiscoveryView, Integer> TEXT_ALPHA = new Property<DiscoveryView, Integer>(Integer.class, "textAlpha") {
+        @Override
+        public Integer get(DiscoveryView view) {
+            return view.textAlpha;
+        }
 
-            @Override
-            public void onAnimationEnd(Animator animator) {
-                dialog.dismiss();
-                if (listener != null) listener.onDiscoveryViewDismissed(DiscoveryView.this);
-            }
+        @Override
+        public void set(DiscoveryView view, Integer value) {
+            view.setTextAlpha(value);
+        }
+    };
 
-            @Override
-            public void onAnimationCancel(Animator animator) {
+    /** The width of the ripple around the target circle, animated by the propertyName "rippleWidth" */
+    public static final Property<DiscoveryView, Float> RIPPLE_WIDTH = new Property<DiscoveryView, Float>(Float.class, "rippleWidth") {
+        @Override
+        public Float get(DiscoveryView view) {
+            return view.rippleWidth;
+        }
 
-            }
+        @Override
+        public void set(DiscoveryView view, Float value) {
+            view.setRippleWidth(value);
+        }
+    };
 
-            @Override
-            public void onAnimationRepeat(Animator animator) {
+    /** The alpha of the ripple (0 - 255), animated by the propertyName "rippleAlpha" */
+    public static final Property<DiscoveryView, Integer> RIPPLE_ALPHA = new Property<DiscoveryView, Integer>(Integer.class, "rippleAlpha") {
+        @Override
+        public Integer get(DiscoveryView view) {
+            return view.rippleAlpha;
+        }
 
-            }
-        });
+        @Override
+        public void set(DiscoveryView view, Integer value) {
+            view.setRippleAlpha(value);
+        }
+    };
+
+    private static final Property[] PROPERTIES = {
+        MOVE_PROGRESS, PULSE_RADIUS, BACKGROUND_RADIUS, TARGET_RADIUS,
+        TARGET_ALPHA, TEXT_ALPHA, RIPPLE_WIDTH, RIPPLE_ALPHA
+    };
+
+    // Returns the property of the view with the given name or null if there is none.
+    // Since Nougat the animators pass primitives to FloatProperty and IntProperty,
+    // so the frames of the clock do not box a value for every track
+    private static Property getProperty(String name) {
+        Property[] properties = PROPERTIES;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) properties = PrimitiveProperties.PROPERTIES;
+
+        for (Property property : properties) {
+            if (property.getName().equals(name)) return property;
+        }
 
-        anim.setTarget(this);
-        anim.start();
+        return null;
     }
 
-    private void startPulse() {
-        AnimatorSet anim = (AnimatorSet) AnimatorInflater.loadAnimator(getContext(), R.animator.pulse);
+    // The same properties as above without boxing. Only loaded on Nougat and later
+    @TargetApi(Build.VERSION_CODES.N)
+    private static final class PrimitiveProperties {
+        private static final Property[] PROPERTIES = {
+            new FloatProperty<DiscoveryView>(MOVE_PROGRESS.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, float value) {
+                    view.setMoveProgress(value);
+                }
 
-        Animator pulseAnimator = anim.getChildAnimations().get(0);
-        pulseAnimator.addListener(new Animator.AnimatorListener() {
-            @Override
-            public void onAnimationStart(Animator animator) {
+                @Override
+                public Float get(DiscoveryView view) {
+                    return view.moveProgress;
+                }
+            },
+            new FloatProperty<DiscoveryView>(PULSE_RADIUS.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, float value) {
+                    view.setPulseRadius(value);
+                }
 
-            }
+                @Override
+                public Float get(DiscoveryView view) {
+                    return view.animTargetRadiusDp;
+                }
+            },
+            new FloatProperty<DiscoveryView>(BACKGROUND_RADIUS.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, float value) {
+                    view.setBackgroundRadius(value);
+                }
 
-            @Override
-            public void onAnimationEnd(Animator animator) {
-                startPulse();
-            }
+                @Override
+                public Float get(DiscoveryView view) {
+                    return view.bgRadius;
+                }
+            },
+            new FloatProperty<DiscoveryView>(TARGET_RADIUS.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, float value) {
+                    view.setTargetRadius(value);
+                }
 
-            @Override
-            public void onAnimationCancel(Animator animator) {
+                @Override
+                public Float get(DiscoveryView view) {
+                    return view.targetRadiusDp;
+                }
+            },
+            new IntProperty<DiscoveryView>(TARGET_ALPHA.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, int value) {
+                    view.setTargetAlpha(value);
+                }
 
-            }
+                @Override
+                public Integer get(DiscoveryView view) {
+                    return view.targetAlpha;
+                }
+            },
+            new IntProperty<DiscoveryView>(TEXT_ALPHA.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, int value) {
+                    view.setTextAlpha(value);
+                }
 
-            @Override
-            public void onAnimationRepeat(Animator animator) {
+                @Override
+                public Integer get(DiscoveryView view) {
+                    return view.textAlpha;
+                }
+            },
+            new FloatProperty<DiscoveryView>(RIPPLE_WIDTH.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, float value) {
+                    view.setRippleWidth(value);
+                }
 
-            }
-        });
+                @Override
+                public Float get(DiscoveryView view) {
+                    return view.rippleWidth;
+                }
+            },
+            new IntProperty<DiscoveryView>(RIPPLE_ALPHA.getName()) {
+                @Override
+                public void setValue(DiscoveryView view, int value) {
+                    view.setRippleAlpha(value);
+                }
 
-        anim.setTarget(this);
-        anim.start();
+                @Override
+                public Integer get(DiscoveryView view) {
+                    return view.rippleAlpha;
+                }
+            }
+        };
     }
 
-    private int getThemeColor(int attr) {
-        TypedValue typedValue = new TypedValue();
-
-        TypedArray a = getContext().obtainStyledAttributes(typedValue.data, new int[]{attr});
-        int color = a.getColor(0, 0);
+    private void setMoveProgress(float value) {
+        moveProgress = value;
+        center.x = moveFromCenter.x + (moveToCenter.x - moveFromCenter.x) * value;
+        center.y = moveFromCenter.y + (moveToCenter.y - moveFromCenter.y) * value;
+        bgRadius = moveFromBgRadius + (moveToBgRadius - moveFromBgRadius) * value;
 
-        a.recycle();
-        return color;
+        if (value >= 0.5f && previousPrimaryLayout != null) {
+            // The texts are invisible at this point, see move.xml
+            previousPrimaryLayout = null;
+            previousSecondaryLayout = null;
+        }
     }
 
-    ////////////////////////////////////////////////////////////////////////////////////////
-    ///                                                                                  ///
-    ///    Following method are only used by the Android framework for the animations    ///
-    ///                                                                                  ///
-    ////////////////////////////////////////////////////////////////////////////////////////
-
-    @SuppressWarnings("unused")
     private void setPulseRadius(float value) {
         animTargetRadiusDp = value;
-        this.invalidate();
     }
 
-    @SuppressWarnings("unused")
     private void setBackgroundRadius(float value) {
         bgRadius = value;
-        this.invalidate();
     }
 
-    @SuppressWarnings("unused")
     private void setTargetRadius(float value) {
         targetRadiusDp = value;
-        this.invalidate();
     }
 
-    @SuppressWarnings("unused")
     private void setTargetAlpha(int value) {
         targetAlpha = value;
-        this.invalidate();
     }
 
-    @SuppressWarnings("unused")
     private void setTextAlpha(int value) {
         textAlpha = value;
-        this.invalidate();
     }
 
-    @SuppressWarnings("unused")
     private void setRippleWidth(float value) {
         rippleWidth = value;
-        this.invalidate();
     }
 
-    @SuppressWarnings("unused")
     private void setRippleAlpha(int value) {
         rippleAlpha = value;
-        this.invalidate();
     }
 
-    private class ClickDetector extends GestureDetector.SimpleOnGestureListener
+    private class ClockListener extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener
+    {
+        private boolean canceled;
+
+        @Override
+        public void onAnimationStart(Animator animation) {
+            canceled = false;
+        }
+
+        @Override
+        public void onAnimationCancel(Animator animation) {
+            canceled = true;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (canceled) return;
+
+            endedPhase = phase;
+            post(phaseEnd);
+        }
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            onFrame();
+        }
+    }
+
+    private static class ExtraTarget
+    {
+        private final View view;
+        private final PointF center;
+        private Bitmap bitmap;
+        private int renderMode;
+
+        ExtraTarget(View view) {
+            this.view = view;
+            this.center = new PointF();
+        }
+    }
+
+    // Tears the view down when its activity is destroyed while it is shown
+    private class HostLifecycle extends ActivityDestroyedCallbacks
+    {
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            if (activity != getContext()) return;
+            hostDestroyed = true;
+
+            // Cancels the clock, removes the dialog and all listeners,
+            // returns the snapshot and drops the target and the listener
+            reset();
+            dialog = null;
+            staticLayer = null;
+        }
+    }
+
+    // Removes the pooled views of a destroyed activity from the pool
+    private static class PoolLifecycle extends ActivityDestroyedCallbacks
+    {
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            synchronized (pool) {
+                for (int i = poolSize - 1; i >= 0; i--) {
+                    if (pool[i].getContext() != activity) continue;
+
+                    pool[i].hostDestroyed = true;
+                    pool[i] = pool[--poolSize];
+                    pool[poolSize] = null;
+                }
+            }
+        }
+    }
+
+    private static abstract class ActivityDestroyedCallbacks implements Application.ActivityLifecycleCallbacks
+    {
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+    }
+
+    class ClickDetector extends GestureDetector.SimpleOnGestureListener
     {
         @Override
         public boolean onDown(MotionEvent e) {
@@ -663,13 +2319,18 @@ public class DiscoveryView extends View {
             int x = (int) e.getRawX();
             int y = (int) e.getRawY();
 
-            Rect touchArea = new Rect();
             target.getGlobalVisibleRect(touchArea);
 
             if (touchArea.contains(x, y)) {
                 target.performClick();
             }
 
+            for (int i = 0; i < extraTargets.size(); i++) {
+                View extra = extraTargets.get(i).view;
+                extra.getGlobalVisibleRect(touchArea);
+                if (touchArea.contains(x, y)) extra.performClick();
+            }
+
             if (listener != null) listener.onDiscoveryViewClicked(DiscoveryView.this);
             return true;
         }
@@ -702,12 +2363,41 @@ public class DiscoveryView extends View {
         private int backgroundColor = -1;
         private ColorFilter colorFilter;
         private boolean defaultFilter;
+        private int hostMode = HOST_DIALOG;
+        private boolean trackTarget;
+        private boolean directRendering;
+        private PulsePolicy pulsePolicy;
+        private boolean spotlight;
+        private ArrayList<View> extraTargets;
+        private String discoveryId;
+
+        private int flyInAnimator = -1;
+        private int flyOutAnimator = -1;
+        private int pulseAnimator = -1;
+
+        /**
+         * Receives the DiscoveryView which was built by {@link #buildAsync(Executor, Callback)}
+         */
+        public interface Callback {
+            void onDiscoveryViewBuilt(DiscoveryView discoveryView);
+        }
 
         public Builder(Context context, View target) {
             this.context = context;
             this.target = target;
         }
 
+        /**
+         * Highlights a further view together with the target
+         * @param target A further target, see {@link DiscoveryView#addTarget(View)}
+         * @return This builder
+         */
+        public Builder addTarget(View target) {
+            if (extraTargets == null) extraTargets = new ArrayList<>();
+            extraTargets.add(target);
+            return this;
+        }
+
         public Builder setOnClickListener(OnDiscoveryViewClickListener listener) {
             this.listener = listener;
             return this;
@@ -796,9 +2486,123 @@ public class DiscoveryView extends View {
             return this;
         }
 
+        public Builder setHostMode(int hostMode) {
+            this.hostMode = hostMode;
+            return this;
+        }
+
+        /**
+         * Lets the highlight follow the target while it scrolls or moves
+         * @param trackTarget True if the target should be tracked (Default false)
+         * @return This builder
+         */
+        public Builder setTrackTarget(boolean trackTarget) {
+            this.trackTarget = trackTarget;
+            return this;
+        }
+
+        /**
+         * Draws the target live instead of a snapshot if possible
+         * @param directRendering True if no snapshot should be taken (Default false)
+         * @return This builder
+         */
+        public Builder setDirectRendering(boolean directRendering) {
+            this.directRendering = directRendering;
+            return this;
+        }
+
+        /**
+         * Draws the highlight without overdraw
+         * @param spotlight True if every pixel should be drawn once (Default false)
+         * @return This builder
+         */
+        public Builder setSpotlightRendering(boolean spotlight) {
+            this.spotlight = spotlight;
+            return this;
+        }
+
+        public Builder setPulsePolicy(PulsePolicy pulsePolicy) {
+            this.pulsePolicy = pulsePolicy;
+            return this;
+        }
+
+        /**
+         * Shows the view only if the discovery with this id was not seen yet
+         * @param discoveryId The unique id of the discovery (Default null)
+         * @return This builder
+         */
+        public Builder setDiscoveryId(String discoveryId) {
+            this.discoveryId = discoveryId;
+            return this;
+        }
+
+        public Builder setFlyInAnimator(@AnimatorRes int flyInAnimator) {
+            this.flyInAnimator = flyInAnimator;
+            return this;
+        }
+
+        public Builder setFlyOutAnimator(@AnimatorRes int flyOutAnimator) {
+            this.flyOutAnimator = flyOutAnimator;
+            return this;
+        }
+
+        public Builder setPulseAnimator(@AnimatorRes int pulseAnimator) {
+            this.pulseAnimator = pulseAnimator;
+            return this;
+        }
+
+        /**
+         * Measures the texts on the given executor and builds the DiscoveryView on the
+         * main thread afterwards. The measured layouts are taken from the TextLayoutCache
+         * when the view is laid out, so its first frame is drawn without measuring text
+         * @param executor The executor which measures the texts in the background
+         * @param callback The callback which receives the view on the main thread
+         */
+        public void buildAsync(Executor executor, final Callback callback) {
+            final Handler handler = new Handler(Looper.getMainLooper());
+            DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+
+            // The paints and the width must match the ones of the view, otherwise
+            // the layouts measured in the background are not found in the cache
+            final TextPaint primaryPaint = createTextPaint(primaryTextSize, PRIMARY_TEXT_SIZE, primaryTextTypeface, metrics);
+            final TextPaint secondaryPaint = createTextPaint(secondaryTextSize, SECONDARY_TEXT_SIZE, secondaryTextTypeface, metrics);
+
+            float textPaddingLrDp = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, TEXT_PADDING_LR, metrics);
+            final int width = (int) (metrics.widthPixels - 2 * textPaddingLrDp);
+
+            final String primaryText = this.primaryText;
+            final String secondaryText = this.secondaryText;
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    TextLayoutCache layoutCache = TextLayoutCache.get();
+                    layoutCache.obtain(primaryText, primaryPaint, width);
+                    layoutCache.obtain(secondaryText, secondaryPaint, width);
+
+                    handler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onDiscoveryViewBuilt(build());
+                        }
+                    });
+                }
+            });
+        }
+
+        private TextPaint createTextPaint(int textSize, int defaultSizeSp, Typeface typeface, DisplayMetrics metrics) {
+            TextPaint paint = new TextPaint(TextPaint.ANTI_ALIAS_FLAG);
+
+            if (textSize != -1) paint.setTextSize(textSize);
+            else paint.setTextSize(TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_SP, defaultSizeSp, metrics));
+
+            if (typeface != null) paint.setTypeface(typeface);
+            return paint;
+        }
+
         public DiscoveryView build() {
-            DiscoveryView v = new DiscoveryView(context);
-            v.setTarget(target);
+            long buildTime = System.nanoTime();
+            DiscoveryView v = DiscoveryView.obtain(context);
 
             if (primaryText != null) v.setPrimaryText(primaryText);
             if (secondaryText != null) v.setSecondaryText(secondaryText);
@@ -813,10 +2617,10 @@ public class DiscoveryView extends View {
             if (backgroundColor != -1) v.setBackgroundColor(backgroundColor);
 
             if (defaultFilter)
-            {
+            {   // The primary color filter drops all color channels, so the
+                // cheaper silhouette mode produces the same result
                 if(backgroundColor == -1) backgroundColor = v.getThemeColor(R.attr.colorPrimaryDark);
-                ColorFilter colorFilter = new LightingColorFilter(0, backgroundColor);
-                v.setColorFilter(colorFilter);
+                v.setSilhouetteColor(backgroundColor);
             }
             else if(this.colorFilter != null)
             {
@@ -824,7 +2628,25 @@ public class DiscoveryView extends View {
             }
 
             if (listener != null) v.setOnDiscoveryViewClickListener(listener);
+            v.setHostMode(hostMode);
+            v.setTrackTarget(trackTarget);
+            v.setDirectRendering(directRendering);
+            if (pulsePolicy != null) v.setPulsePolicy(pulsePolicy);
+            v.setSpotlightRendering(spotlight);
+            if (discoveryId != null) v.setDiscoveryId(discoveryId);
+
+            if (flyInAnimator != -1) v.setFlyInAnimator(flyInAnimator);
+            if (flyOutAnimator != -1) v.setFlyOutAnimator(flyOutAnimator);
+            if (pulseAnimator != -1) v.setPulseAnimator(pulseAnimator);
+
+            if (extraTargets != null) {
+                for (View extraTarget : extraTargets) v.addTarget(extraTarget);
+            }
 
+            // The target is captured last so the snapshot
+            // is taken only once and in the right config
+            v.setTarget(target);
+            v.buildTime = buildTime;
             return v;
         }
     }
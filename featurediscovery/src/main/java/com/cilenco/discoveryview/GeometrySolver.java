@@ -0,0 +1,234 @@
+package com.cilenco.discoveryview;
+
+/**
+ * Places the texts of the {@link DiscoveryView} around the target and solves the
+ * radius of the background circle. The texts are put on the side of the target with
+ * more free space and the radius is the distance from the center to the farthest
+ * corner of the text block. The solver works on plain floats without any Android
+ * class, and it remembers the last results so unchanged input is not solved again.
+ */
+final class GeometrySolver {
+    private static final int CACHE_SIZE = 4;
+
+    // Layout of a cache entry in the input array
+    private static final int CENTER_X = 0;
+    private static final int CENTER_Y = 1;
+    private static final int TARGET_RADIUS = 2;
+    private static final int VIEW_HEIGHT = 3;
+    private static final int PRIMARY_WIDTH = 4;
+    private static final int PRIMARY_HEIGHT = 5;
+    private static final int SECONDARY_WIDTH = 6;
+    private static final int SECONDARY_HEIGHT = 7;
+    private static final int INPUTS = 8;
+
+    // Layout of a cache entry in the output array
+    private static final int PRIMARY_Y = 0;
+    private static final int SECONDARY_Y = 1;
+    private static final int RADIUS = 2;
+    private static final int OUTPUTS = 3;
+
+    private final float textLeft;                   // Holds the left edge of the texts
+    private final float textPaddingTop;             // Holds the space between target and texts
+    private final float textDistance;               // Holds the space between primary and secondary text
+    private final float padding;                    // Holds the space between texts and background edge
+
+    private final float[] inputs;                   // Holds the input of every cached result
+    private final float[] outputs;                  // Holds the cached results
+    private int size;                               // Holds the number of cached results
+    private int next;                               // Holds the entry which is replaced next
+
+    private float primaryTextY;                     // Holds the Y-position of the primary text
+    private float secondaryTextY;                   // Holds the Y-position of the secondary text
+    private float radius;                           // Holds the radius of the background circle
+
+    private int hitCount;                           // Counts the results found in the cache
+    private int missCount;                          // Counts the solved results
+
+    /**
+     * Creates a solver for fixed paddings. All values are in pixels
+     * @param textLeft The left edge of the text block
+     * @param textPaddingTop The space between the target circle and the text block
+     * @param textDistance The space between the primary and the secondary text
+     * @param padding The space between the text block and the edge of the background
+     */
+    GeometrySolver(float textLeft, float textPaddingTop, float textDistance, float padding) {
+        this.textLeft = textLeft;
+        this.textPaddingTop = textPaddingTop;
+        this.textDistance = textDistance;
+        this.padding = padding;
+
+        this.inputs = new float[CACHE_SIZE * INPUTS];
+        this.outputs = new float[CACHE_SIZE * OUTPUTS];
+    }
+
+    /**
+     * Solves the text positions and the background radius. The results
+     * are read with {@link #getPrimaryTextY()}, {@link #getSecondaryTextY()}
+     * and {@link #getRadius()}. All values are in view coordinates. The width of the
+     * view is not needed, the texts always start at the left edge of the view
+     * @param centerX The horizontal center of the target
+     * @param centerY The vertical center of the target
+     * @param targetRadius The radius of the target circle
+     * @param viewHeight The height of the view
+     * @param primaryWidth The width of the widest line of the primary text
+     * @param primaryHeight The height of the primary text
+     * @param secondaryWidth The width of the widest line of the secondary text
+     * @param secondaryHeight The height of the secondary text
+     */
+    void solve(float centerX, float centerY, float targetRadius, float viewHeight,
+               float primaryWidth, float primaryHeight, float secondaryWidth, float secondaryHeight) {
+        solve(centerX, centerY, targetRadius, viewHeight,
+                primaryWidth, primaryHeight, secondaryWidth, secondaryHeight, null, 0);
+    }
+
+    /**
+     * Solves the text positions and the background radius for a highlight with further
+     * targets. The texts are moved past every target they would cover and the background
+     * encloses all targets. Results with further targets are not cached
+     * @param extraCenters The centers of the further targets as x and y pairs
+     * @param extraCount The number of further targets
+     * @see #solve(float, float, float, float, float, float, float, float)
+     */
+    void solve(float centerX, float centerY, float targetRadius, float viewHeight,
+               float primaryWidth, float primaryHeight, float secondaryWidth, float secondaryHeight,
+               float[] extraCenters, int extraCount) {
+        if (extraCount > 0) {
+            missCount++;
+            solveUncached(centerX, centerY, targetRadius, viewHeight, primaryWidth, primaryHeight,
+                    secondaryWidth, secondaryHeight, extraCenters, extraCount);
+            return;
+        }
+
+        for (int i = 0; i < size; i++) {
+            int in = i * INPUTS;
+
+            if (inputs[in + CENTER_X] == centerX && inputs[in + CENTER_Y] == centerY
+                    && inputs[in + TARGET_RADIUS] == targetRadius
+                    && inputs[in + VIEW_HEIGHT] == viewHeight
+                    && inputs[in + PRIMARY_WIDTH] == primaryWidth && inputs[in + PRIMARY_HEIGHT] == primaryHeight
+                    && inputs[in + SECONDARY_WIDTH] == secondaryWidth && inputs[in + SECONDARY_HEIGHT] == secondaryHeight) {
+                int out = i * OUTPUTS;
+
+                primaryTextY = outputs[out + PRIMARY_Y];
+                secondaryTextY = outputs[out + SECONDARY_Y];
+                radius = outputs[out + RADIUS];
+
+                hitCount++;
+                return;
+            }
+        }
+
+        missCount++;
+        solveUncached(centerX, centerY, targetRadius, viewHeight, primaryWidth, primaryHeight,
+                secondaryWidth, secondaryHeight, null, 0);
+
+        int in = next * INPUTS;
+        inputs[in + CENTER_X] = centerX;
+        inputs[in + CENTER_Y] = centerY;
+        inputs[in + TARGET_RADIUS] = targetRadius;
+        inputs[in + VIEW_HEIGHT] = viewHeight;
+        inputs[in + PRIMARY_WIDTH] = primaryWidth;
+        inputs[in + PRIMARY_HEIGHT] = primaryHeight;
+        inputs[in + SECONDARY_WIDTH] = secondaryWidth;
+        inputs[in + SECONDARY_HEIGHT] = secondaryHeight;
+
+        int out = next * OUTPUTS;
+        outputs[out + PRIMARY_Y] = primaryTextY;
+        outputs[out + SECONDARY_Y] = secondaryTextY;
+        outputs[out + RADIUS] = radius;
+
+        next = (next + 1) % CACHE_SIZE;
+        size = Math.max(size, next == 0 ? CACHE_SIZE : next);
+    }
+
+    private void solveUncached(float centerX, float centerY, float targetRadius, float viewHeight,
+                               float primaryWidth, float primaryHeight, float secondaryWidth, float secondaryHeight,
+                               float[] extraCenters, int extraCount) {
+        float textRight = textLeft + Math.max(primaryWidth, secondaryWidth);
+        place(centerY, targetRadius, viewHeight, textRight, primaryHeight, secondaryHeight, extraCenters, extraCount);
+
+        float textBottom = secondaryTextY + secondaryHeight;
+        radius = farthestCorner(centerX, centerY, textLeft, primaryTextY, textRight, textBottom);
+
+        for (int i = 0; i < extraCount; i++) {
+            float dx = extraCenters[2 * i] - centerX;
+            float dy = extraCenters[2 * i + 1] - centerY;
+            radius = Math.max(radius, (float) Math.sqrt(dx * dx + dy * dy) + targetRadius);
+        }
+
+        radius += padding;
+    }
+
+    // The text block is put below the target if it fits there or if there is at least as
+    // much space below as above the target. Further targets push the block away from them
+    private void place(float centerY, float targetRadius, float viewHeight, float textRight,
+                       float primaryHeight, float secondaryHeight, float[] extraCenters, int extraCount) {
+        float blockHeight = primaryHeight + textDistance + secondaryHeight;
+        float margin = targetRadius + textPaddingTop;
+
+        float top = centerY + margin;
+        float bottom = centerY - margin;
+
+        // Every pass moves the block past at least one target, so it ends after extraCount passes
+        for (int pass = 0; pass < extraCount; pass++) {
+            boolean moved = false;
+
+            for (int i = 0; i < extraCount; i++) {
+                float x = extraCenters[2 * i];
+                float y = extraCenters[2 * i + 1];
+                if (x + margin < textLeft || x - margin > textRight) continue; // Beside the texts
+
+                if (y + margin > top && y - margin < top + blockHeight) {
+                    top = y + margin;
+                    moved = true;
+                }
+
+                if (y + margin > bottom - blockHeight && y - margin < bottom) {
+                    bottom = y - margin;
+                    moved = true;
+                }
+            }
+
+            if (!moved) break;
+        }
+
+        float spaceBelow = viewHeight - top;
+        float spaceAbove = bottom;
+
+        if (spaceBelow >= blockHeight || spaceBelow >= spaceAbove) {
+            primaryTextY = top;
+            secondaryTextY = primaryTextY + primaryHeight + textDistance;
+        } else {
+            secondaryTextY = bottom - secondaryHeight;
+            primaryTextY = secondaryTextY - textDistance - primaryHeight;
+        }
+    }
+
+    // Returns the distance from the point to the corner of the rect which is farthest away
+    private static float farthestCorner(float x, float y, float left, float top, float right, float bottom) {
+        float dx = Math.max(Math.abs(x - left), Math.abs(x - right));
+        float dy = Math.max(Math.abs(y - top), Math.abs(y - bottom));
+
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    float getPrimaryTextY() {
+        return primaryTextY;
+    }
+
+    float getSecondaryTextY() {
+        return secondaryTextY;
+    }
+
+    float getRadius() {
+        return radius;
+    }
+
+    int getHitCount() {
+        return hitCount;
+    }
+
+    int getMissCount() {
+        return missCount;
+    }
+}
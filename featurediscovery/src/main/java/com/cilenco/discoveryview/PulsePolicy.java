@@ -0,0 +1,113 @@
+package com.cilenco.discoveryview;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.os.Build;
+import android.os.PowerManager;
+import android.provider.Settings;
+
+/**
+ * Defines how often and when the {@link DiscoveryView} pulses. By default the pulse
+ * runs at the refresh rate of the display, pauses while the window has no focus and
+ * is replaced by a static highlight when animations are turned off or the device
+ * saves power.
+ */
+@SuppressWarnings("unused")
+public final class PulsePolicy {
+    private int maxFrameRate;                       // Holds the maximal pulse frames per second (0 = display rate)
+    private boolean pauseWhenUnfocused;             // True if the pulse pauses without window focus
+    private boolean staticWhenAnimationsOff;        // True if the pulse is skipped for a duration scale of 0
+    private boolean staticInPowerSaveMode;          // True if the pulse is skipped while saving power
+
+    public PulsePolicy() {
+        this.pauseWhenUnfocused = true;
+        this.staticWhenAnimationsOff = true;
+        this.staticInPowerSaveMode = true;
+    }
+
+    /**
+     * Limits the frames drawn while pulsing, e.g. to 30 fps on devices which
+     * run for a long time. The other animations are not limited (Default 0)
+     * @param maxFrameRate The frames per second or 0 to draw every display frame
+     * @return This policy
+     */
+    public PulsePolicy setMaxFrameRate(int maxFrameRate) {
+        this.maxFrameRate = Math.max(0, maxFrameRate);
+        return this;
+    }
+
+    public int getMaxFrameRate() {
+        return maxFrameRate;
+    }
+
+    /**
+     * Pauses the pulse while the window of the view is not focused (Default true)
+     * @param pauseWhenUnfocused True if the pulse should pause without focus
+     * @return This policy
+     */
+    public PulsePolicy setPauseWhenUnfocused(boolean pauseWhenUnfocused) {
+        this.pauseWhenUnfocused = pauseWhenUnfocused;
+        return this;
+    }
+
+    public boolean isPauseWhenUnfocused() {
+        return pauseWhenUnfocused;
+    }
+
+    /**
+     * Shows a static highlight if the animator duration scale of the
+     * developer options or the accessibility settings is 0 (Default true)
+     * @param staticWhenAnimationsOff True if the pulse should be skipped
+     * @return This policy
+     */
+    public PulsePolicy setStaticWhenAnimationsOff(boolean staticWhenAnimationsOff) {
+        this.staticWhenAnimationsOff = staticWhenAnimationsOff;
+        return this;
+    }
+
+    public boolean isStaticWhenAnimationsOff() {
+        return staticWhenAnimationsOff;
+    }
+
+    /**
+     * Shows a static highlight while the battery saver is on (Default true)
+     * @param staticInPowerSaveMode True if the pulse should be skipped
+     * @return This policy
+     */
+    public PulsePolicy setStaticInPowerSaveMode(boolean staticInPowerSaveMode) {
+        this.staticInPowerSaveMode = staticInPowerSaveMode;
+        return this;
+    }
+
+    public boolean isStaticInPowerSaveMode() {
+        return staticInPowerSaveMode;
+    }
+
+    // Returns the minimal time between two pulse frames in ms or 0 if there is no limit
+    long getMinFrameInterval() {
+        return maxFrameRate == 0 ? 0 : 1000 / maxFrameRate;
+    }
+
+    // Returns true if the view should only show the static highlight
+    boolean isStatic(Context context) {
+        if (staticWhenAnimationsOff && getAnimatorDurationScale(context) == 0) return true;
+        if (staticInPowerSaveMode && Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            return powerManager != null && powerManager.isPowerSaveMode();
+        }
+
+        return false;
+    }
+
+    // Returns the animator duration scale of the developer options (Default 1)
+    @SuppressWarnings("deprecation")
+    static float getAnimatorDurationScale(Context context) {
+        ContentResolver resolver = context.getContentResolver();
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return Settings.Global.getFloat(resolver, Settings.Global.ANIMATOR_DURATION_SCALE, 1);
+        }
+
+        return Settings.System.getFloat(resolver, Settings.System.ANIMATOR_DURATION_SCALE, 1);
+    }
+}
@@ -0,0 +1,132 @@
+package com.cilenco.discoveryview;
+
+import android.graphics.Typeface;
+import android.text.Layout;
+import android.text.StaticLayout;
+import android.text.TextPaint;
+import android.util.LruCache;
+
+/**
+ * Process wide cache for the text layouts of the {@link DiscoveryView}. The layouts
+ * are keyed by everything which affects the measurement of the text but not by its
+ * color. Every layout owns a copy of the paint, so a view has to set the color on
+ * {@link StaticLayout#getPaint()} right before it draws the layout.
+ */
+public final class TextLayoutCache {
+    private static final int DEFAULT_MAX_SIZE = 32;
+
+    private static TextLayoutCache instance;
+
+    private final LruCache<Key, StaticLayout> layouts;  // Holds the cached layouts (thread safe)
+
+    private TextLayoutCache(int maxSize) {
+        layouts = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Returns the cache which is shared by all DiscoveryViews of the process
+     * @return The process wide TextLayoutCache
+     */
+    public static synchronized TextLayoutCache get() {
+        if (instance == null) instance = new TextLayoutCache(DEFAULT_MAX_SIZE);
+        return instance;
+    }
+
+    /**
+     * Returns a layout of the text with the size, typeface and flags of the paint.
+     * The text is only measured if no matching layout is in the cache. This method
+     * can be called from any thread
+     * @param text The text of the layout
+     * @param paint The paint which defines the text appearance
+     * @param width The available width of the layout
+     * @return A cached or new layout for the given values
+     */
+    public StaticLayout obtain(String text, TextPaint paint, int width) {
+        if (text == null) text = "";
+
+        Key key = new Key(text, paint, width);
+        StaticLayout layout = layouts.get(key);
+
+        if (layout == null) {
+            TextPaint layoutPaint = new TextPaint(paint); // The layout must not share the paint of a view
+            layout = new StaticLayout(text, layoutPaint, width, Layout.Alignment.ALIGN_NORMAL, 1.0f, 0.0f, false);
+            layouts.put(key, layout);
+        }
+
+        return layout;
+    }
+
+    /**
+     * Returns how often a layout was found in the cache
+     * @return The number of hits
+     */
+    public int getHitCount() {
+        return layouts.hitCount();
+    }
+
+    /**
+     * Returns how often a layout had to be created
+     * @return The number of misses
+     */
+    public int getMissCount() {
+        return layouts.missCount();
+    }
+
+    /**
+     * Returns the share of requests which were served from the cache
+     * @return The hit rate between 0 and 1
+     */
+    public float getHitRate() {
+        int hits = layouts.hitCount();
+        int requests = hits + layouts.missCount();
+
+        return requests == 0 ? 0 : (float) hits / requests;
+    }
+
+    /**
+     * Removes all layouts from the cache
+     */
+    public void clear() {
+        layouts.evictAll();
+    }
+
+    private static final class Key {
+        private final String text;
+        private final float textSize;
+        private final float textScaleX;
+        private final Typeface typeface;
+        private final int flags;
+        private final int width;
+
+        Key(String text, TextPaint paint, int width) {
+            this.text = text;
+            this.textSize = paint.getTextSize();
+            this.textScaleX = paint.getTextScaleX();
+            this.typeface = paint.getTypeface();
+            this.flags = paint.getFlags();
+            this.width = width;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key key = (Key) o;
+            return textSize == key.textSize && textScaleX == key.textScaleX
+                    && flags == key.flags && width == key.width && text.equals(key.text)
+                    && (typeface == null ? key.typeface == null : typeface.equals(key.typeface));
+        }
+
+        @Override
+        public int hashCode() {
+            int result = text.hashCode();
+            result = 31 * result + Float.floatToIntBits(textSize);
+            result = 31 * result + Float.floatToIntBits(textScaleX);
+            result = 31 * result + (typeface != null ? typeface.hashCode() : 0);
+            result = 31 * result + flags;
+            result = 31 * result + width;
+            return result;
+        }
+    }
+}